@@ -0,0 +1,96 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CheckoutService;
+import sales.core.CheckoutSession;
+import sales.core.InventoryEngine;
+import sales.core.PersistenceService;
+import sales.core.SalesLedger;
+
+// Add-to-cart throughput: price lookup, stock reservation and cart line bookkeeping, by name and by
+// scanned barcode
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"1000", "100000"})
+        public int catalogSize;
+
+        // Wholesale orders run to thousands of lines
+        @Param({"50", "5000"})
+        public int basketLines;
+
+        String[] names;
+        long[] codes;
+        BarcodeIndex barcodes;
+        File directory;
+        PersistenceService persistence;
+        SalesLedger ledger;
+        CheckoutService service;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            names = SyntheticCatalog.names(catalogSize);
+            codes = SyntheticCatalog.codes(catalogSize);
+            barcodes = SyntheticCatalog.barcodes(names);
+            Map<String, Double> products = new ConcurrentHashMap<>(SyntheticCatalog.products(names));
+            Map<String, Integer> stock = SyntheticCatalog.stock(names, Integer.MAX_VALUE / 2);
+            directory = SyntheticCatalog.writeDataDirectory(0);
+            CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+            journal.replay(1, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+            persistence = new PersistenceService(journal, products, stock, barcodes, new HashMap<>(), new HashMap<>(), (p, i, b, r, c, epoch) -> { });
+            ledger = new SalesLedger(new File(directory, "sales"));
+            service = new CheckoutService(products, new InventoryEngine(stock), persistence, ledger);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            service.shutdown(1000);
+            persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+            ledger.close();
+            SyntheticCatalog.deleteDirectory(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lane {
+        CheckoutSession session;
+
+        @Setup(Level.Trial)
+        public void setUp(Store store) {
+            session = store.service.openSession(Thread.currentThread().getName());
+        }
+    }
+
+    @Benchmark
+    public int addToCart(Store store, Lane lane) {
+        if (lane.session.getLineCount() >= store.basketLines) {
+            lane.session.clear();
+        }
+        String name = store.names[ThreadLocalRandom.current().nextInt(store.names.length)];
+        return lane.session.add(name, 1);
+    }
+
+    // What the Cashier's scan field does per code
+    @Benchmark
+    public int scanToCart(Store store, Lane lane) {
+        if (lane.session.getLineCount() >= store.basketLines) {
+            lane.session.clear();
+        }
+        long code = store.codes[ThreadLocalRandom.current().nextInt(store.codes.length)];
+        return lane.session.add(store.barcodes.lookup(code), 1);
+    }
+}
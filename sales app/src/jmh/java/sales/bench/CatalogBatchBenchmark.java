@@ -0,0 +1,89 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogBatch;
+import sales.core.CatalogJournal;
+import sales.core.InventoryEngine;
+import sales.core.PersistenceService;
+import sales.core.ProductSearchIndex;
+
+// A price change and restock across many products as Admin applies it: one edit and one queued
+// mutation per product, versus one CatalogBatch commit. Each op applies the change and reverts it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBatchBenchmark {
+    private static final int CATALOG_SIZE = 100000;
+
+    @Param({"100", "5000"})
+    public int batchSize;
+
+    private String[] selected;
+    private Map<String, Double> products;
+    private InventoryEngine inventory;
+    private Map<String, String> categories;
+    private ProductSearchIndex searchIndex;
+    private File directory;
+    private PersistenceService persistence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] names = SyntheticCatalog.names(CATALOG_SIZE);
+        selected = new String[batchSize];
+        System.arraycopy(names, 0, selected, 0, batchSize);
+        products = new ConcurrentHashMap<>(SyntheticCatalog.products(names));
+        Map<String, Integer> stock = SyntheticCatalog.stock(names, 100);
+        inventory = new InventoryEngine(stock);
+        categories = new ConcurrentHashMap<>(SyntheticCatalog.categories(names));
+        searchIndex = new ProductSearchIndex(products.keySet(), categories);
+        directory = SyntheticCatalog.writeDataDirectory(0);
+        CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+        journal.replay(1, new HashMap<>(), new HashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        persistence = new PersistenceService(journal, products, stock, new BarcodeIndex(), new HashMap<>(), categories,
+            (p, i, b, r, c, epoch) -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public int perProductEdits() {
+        for (int pass = 0; pass < 2; pass++) {
+            for (String name : selected) {
+                double price = products.get(name);
+                double newPrice = pass == 0 ? price * 1.1 : price / 1.1;
+                products.put(name, newPrice);
+                persistence.setPrice(name, newPrice);
+                int delta = pass == 0 ? 5 : -5;
+                inventory.set(name, inventory.getOnHand(name) + delta);
+                persistence.adjustStock(name, delta);
+            }
+        }
+        return persistence.getPending();
+    }
+
+    @Benchmark
+    public int batchCommit() {
+        CatalogBatch batch = new CatalogBatch();
+        for (String name : selected) {
+            batch.setPrice(name, products.get(name) * 1.1);
+            batch.restock(name, 5);
+        }
+        CatalogBatch undo = batch.commit(products, inventory, categories, searchIndex, persistence);
+        undo.commit(products, inventory, categories, searchIndex, persistence);
+        return persistence.getPending();
+    }
+}
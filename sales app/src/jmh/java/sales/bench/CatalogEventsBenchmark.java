@@ -0,0 +1,111 @@
+package sales.bench;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import sales.core.CatalogEvents;
+import sales.core.InventoryEngine;
+import sales.gui.CatalogUpdates;
+import sales.gui.ProductListModel;
+
+// Lanes sell from a shared inventory while a product list listens, once refreshing a row per stock
+// change on the EDT (as Cashier used to) and once through CatalogUpdates. Prints the stock changes
+// made, the list events the view received and the time the EDT spent on them.
+// Usage: java -cp target/benchmarks.jar sales.bench.CatalogEventsBenchmark [products] [lanes] [seconds]
+public class CatalogEventsBenchmark {
+    private static final int INITIAL_STOCK = 100_000_000;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int lanes = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.printf("%-10s %16s %16s %12s%n", "view", "stock changes/s", "list events/s", "EDT ms/s");
+        run("per-row", productCount, lanes, seconds, false);
+        run("coalesced", productCount, lanes, seconds, true);
+    }
+
+    private static void run(String label, int productCount, int lanes, int seconds, boolean coalesced)
+            throws Exception {
+        String[] names = new String[productCount];
+        Map<String, Double> products = new HashMap<>();
+        Map<String, Integer> stock = new HashMap<>();
+        Map<String, String> categories = new HashMap<>();
+        for (int i = 0; i < productCount; i++) {
+            names[i] = "product-" + i;
+            products.put(names[i], 1.0 + i % 100);
+            stock.put(names[i], INITIAL_STOCK);
+            categories.put(names[i], "Other");
+        }
+        InventoryEngine inventory = new InventoryEngine(stock);
+        ProductListModel model = new ProductListModel(products, inventory, categories);
+        LongAdder listEvents = new LongAdder();
+        LongAdder edtNanos = new LongAdder();
+        SwingUtilities.invokeAndWait(() -> {
+            model.setNames(products.keySet());
+            model.addListDataListener(new ListDataListener() {
+                public void intervalAdded(ListDataEvent e) { paint(e); }
+                public void intervalRemoved(ListDataEvent e) { paint(e); }
+                public void contentsChanged(ListDataEvent e) { paint(e); }
+
+                // What a JList does with the event: fetch the rows it covers that are on screen
+                private void paint(ListDataEvent e) {
+                    listEvents.increment();
+                    for (int i = e.getIndex0(); i <= Math.min(e.getIndex1(), e.getIndex0() + 40); i++) {
+                        model.getText(i);
+                    }
+                }
+            });
+        });
+
+        CatalogEvents events = new CatalogEvents();
+        if (coalesced) {
+            new CatalogUpdates(events, (inserted, deleted, updated) -> {
+                long start = System.nanoTime();
+                model.apply(inserted, deleted, updated);
+                edtNanos.add(System.nanoTime() - start);
+            });
+        } else {
+            events.addListener(event -> SwingUtilities.invokeLater(() -> {
+                long start = System.nanoTime();
+                model.changed(event.name());
+                edtNanos.add(System.nanoTime() - start);
+            }));
+        }
+        inventory.addListener(events);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder changes = new LongAdder();
+        CountDownLatch done = new CountDownLatch(lanes);
+        for (int t = 0; t < lanes; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    String name = names[random.nextInt(names.length)];
+                    if (inventory.reserve(name, 1)) {
+                        inventory.commit(name, 1);
+                        changes.add(2);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        done.await();
+        // Let the EDT catch up with what was queued
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+        inventory.removeListener(events);
+
+        System.out.printf("%-10s %,16d %,16d %12.1f%n", label, changes.sum() / seconds,
+                listEvents.sum() / seconds, edtNanos.sum() / 1e6 / seconds);
+    }
+}
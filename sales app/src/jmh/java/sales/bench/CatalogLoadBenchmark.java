@@ -0,0 +1,63 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CatalogSnapshot;
+import sales.core.CatalogStore;
+import sales.core.InventoryEngine;
+
+// Terminal start-up: loading the catalog snapshot and replaying the journal, as Main.loadData() does
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogLoadBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    private File directory;
+    private String lastName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = SyntheticCatalog.writeDataDirectory(catalogSize);
+        String[] names = SyntheticCatalog.names(catalogSize);
+        lastName = names[names.length - 1];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public InventoryEngine coldLoad() throws IOException {
+        CatalogStore store = new CatalogStore(directory);
+        Map<String, Double> products = new ConcurrentHashMap<>();
+        Map<String, Integer> onHand = new HashMap<>();
+        BarcodeIndex barcodes = new BarcodeIndex();
+        Map<String, Integer> reorderLevels = new HashMap<>();
+        Map<String, String> categories = new HashMap<>();
+        long epoch = store.load(products, onHand, barcodes, reorderLevels, categories);
+        CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+        journal.replay(epoch, products, onHand, barcodes, reorderLevels, categories);
+        journal.close();
+        return new InventoryEngine(onHand);
+    }
+
+    // Lazy start: read the snapshot and look up one product without decoding the catalog
+    @Benchmark
+    public double snapshotLookup() throws IOException {
+        CatalogSnapshot snapshot = CatalogSnapshot.open(new File(directory, "catalog.snap"));
+        return snapshot.price(snapshot.indexOf(lastName));
+    }
+}
@@ -0,0 +1,157 @@
+package sales.bench;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import sales.core.CatalogArena;
+import sales.core.InventoryEngine;
+import sales.core.Money;
+
+// Memory per SKU of the catalog Main keeps (prices, stock cells and categories), held the way it
+// used to be, in ConcurrentHashMaps with an AtomicLong per stock cell, and in a CatalogArena. Heap
+// is what a full GC gets back once the catalog is dropped; direct memory comes from the JVM's buffer
+// pool. Also times checkout's price lookup (cents, as the cart takes them) and a stock reservation
+// in each. Run with a heap big enough for the map layout, e.g. -Xmx2g for a million products.
+//
+// Usage: java -Xmx2g -cp target/benchmarks.jar sales.bench.CatalogMemoryBenchmark [products]
+public class CatalogMemoryBenchmark {
+    private static final int LOOKUPS = 2_000_000;
+    private static final int SAMPLE = 10_000;
+    // Enough that every timed reservation succeeds
+    private static final int STOCK = 1_000_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] sample = sample(count);
+        System.out.printf("%,d products%n", count);
+        System.out.printf("%-8s %14s %14s %10s %12s %12s%n", "layout", "heap", "direct", "bytes/SKU",
+            "lookup ns", "reserve ns");
+
+        long baseDirect = usedDirect();
+        Maps[] maps = {buildMaps(count)};
+        long direct = usedDirect() - baseDirect;
+        double lookup = lookup(name -> Money.toCents(maps[0].products.get(name)), sample);
+        double reserve = maps[0].reserve(sample);
+        long heap = usedHeap();
+        maps[0] = null;
+        report("maps", count, heap - usedHeap(), direct, lookup, reserve);
+
+        baseDirect = usedDirect();
+        CatalogArena[] arena = {buildArena(count)};
+        direct = usedDirect() - baseDirect;
+        InventoryEngine inventory = new InventoryEngine(arena[0]);
+        lookup = lookup(arena[0]::priceCents, sample);
+        reserve = reserve(inventory, sample);
+        long offHeap = arena[0].getOffHeapBytes();
+        long index = arena[0].getHeapBytes();
+        heap = usedHeap();
+        arena[0] = null;
+        inventory = null;
+        report("arena", count, heap - usedHeap(), direct, lookup, reserve);
+        System.out.printf("The arena reports %,d bytes off heap and a %,d byte index on heap%n", offHeap, index);
+    }
+
+    private static void report(String layout, int count, long heap, long direct, double lookup, double reserve) {
+        System.out.printf("%-8s %,14d %,14d %10.1f %12.1f %12.1f%n", layout, heap, direct,
+            (double) (heap + direct) / count, lookup, reserve);
+    }
+
+    // What Main and InventoryEngine held before the arena
+    private static class Maps {
+        final Map<String, Double> products = new ConcurrentHashMap<>();
+        final Map<String, String> categories = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, AtomicLong> cells = new ConcurrentHashMap<>();
+
+        // The reserve loop InventoryEngine ran on its AtomicLongs
+        double reserve(String[] sample) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                AtomicLong cell = cells.get(sample[i % SAMPLE]);
+                long current;
+                do {
+                    current = cell.get();
+                } while (!cell.compareAndSet(current, current + 1));
+            }
+            return (double) (System.nanoTime() - start) / LOOKUPS;
+        }
+    }
+
+    private static Maps buildMaps(int count) {
+        Maps maps = new Maps();
+        String[] names = SyntheticCatalog.names(count);
+        Map<String, String> categories = SyntheticCatalog.categories(names);
+        Random random = new Random(7);
+        for (String name : names) {
+            maps.products.put(name, (50 + random.nextInt(20_000)) / 100.0);
+            maps.categories.put(name, categories.get(name));
+            maps.cells.put(name, new AtomicLong((long) STOCK << 32));
+        }
+        return maps;
+    }
+
+    private static CatalogArena buildArena(int count) {
+        CatalogArena arena = new CatalogArena(count);
+        String[] names = SyntheticCatalog.names(count);
+        Map<String, String> categories = SyntheticCatalog.categories(names);
+        Random random = new Random(7);
+        for (String name : names) {
+            arena.prices().put(name, (50 + random.nextInt(20_000)) / 100.0);
+            arena.categories().put(name, categories.get(name));
+            arena.stock().put(name, STOCK);
+        }
+        return arena;
+    }
+
+    // Random products' names as copies, the way a cashier's search or scan produces them, so no
+    // lookup finds the very String instance the catalog holds
+    private static String[] sample(int count) {
+        String[] names = SyntheticCatalog.names(count);
+        Random random = new Random(3);
+        String[] sample = new String[SAMPLE];
+        for (int i = 0; i < SAMPLE; i++) {
+            sample[i] = new String(names[random.nextInt(count)]);
+        }
+        return sample;
+    }
+
+    private static double lookup(ToLongFunction<String> priceCents, String[] sample) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += priceCents.applyAsLong(sample[i % SAMPLE]);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sum < 0) {
+            System.out.println(sum);
+        }
+        return (double) elapsed / LOOKUPS;
+    }
+
+    private static double reserve(InventoryEngine inventory, String[] sample) {
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            inventory.reserve(sample[i % SAMPLE], 1);
+        }
+        return (double) (System.nanoTime() - start) / LOOKUPS;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
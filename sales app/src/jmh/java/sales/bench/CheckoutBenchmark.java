@@ -0,0 +1,83 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CheckoutService;
+import sales.core.CheckoutSession;
+import sales.core.InventoryEngine;
+import sales.core.PersistenceService;
+import sales.core.Receipt;
+import sales.core.SalesLedger;
+
+// Checkout latency including the ledger append and queueing the stock decrements, plus the cost
+// of the writer thread journaling and syncing one checkout's worth of records
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+    @Param({"1", "5", "20"})
+    public int basketLines;
+
+    private String[] names;
+    private File directory;
+    private PersistenceService persistence;
+    private SalesLedger ledger;
+    private CheckoutService service;
+    private CheckoutSession session;
+    private CatalogJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        names = SyntheticCatalog.names(10_000);
+        Map<String, Double> products = new ConcurrentHashMap<>(SyntheticCatalog.products(names));
+        Map<String, Integer> stock = SyntheticCatalog.stock(names, Integer.MAX_VALUE / 2);
+        directory = SyntheticCatalog.writeDataDirectory(0);
+        CatalogJournal serviceJournal = new CatalogJournal(new File(directory, "catalog.journal"), 100_000);
+        serviceJournal.replay(1, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        persistence = new PersistenceService(serviceJournal, products, stock, new BarcodeIndex(), new HashMap<>(), new HashMap<>(), (p, i, b, r, c, epoch) -> { });
+        ledger = new SalesLedger(new File(directory, "sales"));
+        service = new CheckoutService(products, new InventoryEngine(stock), persistence, ledger);
+        session = service.openSession("bench");
+
+        journal = new CatalogJournal(new File(directory, "flush.journal"), Integer.MAX_VALUE);
+        journal.replay(0, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        service.shutdown(1000);
+        persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+        ledger.close();
+        journal.close();
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public Receipt checkout() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < basketLines; i++) {
+            session.add(names[random.nextInt(names.length)], 1);
+        }
+        return session.checkout();
+    }
+
+    @Benchmark
+    public void journalFlush() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < basketLines; i++) {
+            journal.appendStockDelta(names[random.nextInt(names.length)], -1);
+        }
+        journal.flush();
+    }
+}
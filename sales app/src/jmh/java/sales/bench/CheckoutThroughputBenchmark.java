@@ -0,0 +1,87 @@
+package sales.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CheckoutService;
+import sales.core.InventoryEngine;
+import sales.core.PersistenceService;
+import sales.core.SalesLedger;
+
+// Runs many headless lanes against one CheckoutService and reports checkouts per second.
+// Usage: java -cp target/benchmarks.jar sales.bench.CheckoutThroughputBenchmark [lanes] [products] [seconds]
+public class CheckoutThroughputBenchmark {
+    private static final int INITIAL_STOCK = 10_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int laneCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int productCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Map<String, Double> products = new ConcurrentHashMap<>();
+        Map<String, Integer> stock = new ConcurrentHashMap<>();
+        String[] names = new String[productCount];
+        for (int i = 0; i < productCount; i++) {
+            names[i] = "product-" + i;
+            products.put(names[i], 0.5 + (i % 200) * 0.25);
+            stock.put(names[i], INITIAL_STOCK);
+        }
+
+        File journalFile = File.createTempFile("checkout-bench", ".journal");
+        journalFile.deleteOnExit();
+        CatalogJournal journal = new CatalogJournal(journalFile, Integer.MAX_VALUE);
+        journal.replay(0, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        InventoryEngine inventory = new InventoryEngine(stock);
+        PersistenceService persistence = new PersistenceService(journal, products, stock, new BarcodeIndex(), new HashMap<>(), new HashMap<>(), (p, i, b, r, c, epoch) -> { });
+        File salesDir = Files.createTempDirectory("checkout-bench-sales").toFile();
+        SalesLedger ledger = new SalesLedger(salesDir);
+        CheckoutService service = new CheckoutService(products, inventory, persistence, ledger);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < laneCount; lane++) {
+            lanes.add(service.runLane("lane-" + lane, session -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    int basket = 1 + random.nextInt(8);
+                    for (int item = 0; item < basket; item++) {
+                        session.add(names[random.nextInt(names.length)], 1 + random.nextInt(3));
+                    }
+                    session.checkout();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Future<?> lane : lanes) {
+            lane.get();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        service.shutdown(1000);
+        persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+        ledger.close();
+        for (File segment : SalesLedger.segments(salesDir)) {
+            segment.delete();
+        }
+        salesDir.delete();
+
+        long sold = 0;
+        for (String name : names) {
+            sold += INITIAL_STOCK - inventory.getOnHand(name);
+        }
+        System.out.printf("lanes=%d products=%d%n", laneCount, productCount);
+        System.out.printf("checkouts: %,d (%,.0f/s)%n", service.getCheckoutCount(), service.getCheckoutCount() / elapsed);
+        System.out.printf("items sold: %,d, stock consistent: %b%n", service.getItemsSold(), sold == service.getItemsSold());
+    }
+}
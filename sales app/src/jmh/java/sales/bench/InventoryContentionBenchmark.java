@@ -0,0 +1,136 @@
+package sales.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import sales.core.InventoryEngine;
+
+// Measures reserve/commit throughput of InventoryEngine against a single lock around a HashMap,
+// with lanes hammering a small set of hot products, and checks that nothing was oversold.
+// Usage: java -cp target/benchmarks.jar sales.bench.InventoryContentionBenchmark [products] [seconds per run]
+public class InventoryContentionBenchmark {
+    private static final int HOT_PRODUCTS = 8;
+    private static final int INITIAL_STOCK = 5_000_000;
+
+    interface Store {
+        boolean reserve(String name, int quantity);
+        void release(String name, int quantity);
+        void commit(String name, int quantity);
+        int onHand(String name);
+    }
+
+    static class EngineStore implements Store {
+        final InventoryEngine engine;
+
+        EngineStore(Map<String, Integer> stock) {
+            engine = new InventoryEngine(stock);
+        }
+
+        public boolean reserve(String name, int quantity) { return engine.reserve(name, quantity); }
+        public void release(String name, int quantity) { engine.release(name, quantity); }
+        public void commit(String name, int quantity) { engine.commit(name, quantity); }
+        public int onHand(String name) { return engine.getOnHand(name); }
+    }
+
+    // What sharing the plain inventory map safely across lanes would take
+    static class LockedMapStore implements Store {
+        final Map<String, Integer> onHand;
+        final Map<String, Integer> reserved = new HashMap<>();
+
+        LockedMapStore(Map<String, Integer> stock) {
+            onHand = new HashMap<>(stock);
+        }
+
+        public synchronized boolean reserve(String name, int quantity) {
+            int held = reserved.getOrDefault(name, 0);
+            if (onHand.get(name) - held < quantity) {
+                return false;
+            }
+            reserved.put(name, held + quantity);
+            return true;
+        }
+
+        public synchronized void release(String name, int quantity) {
+            reserved.merge(name, -quantity, Integer::sum);
+        }
+
+        public synchronized void commit(String name, int quantity) {
+            onHand.merge(name, -quantity, Integer::sum);
+            reserved.merge(name, -quantity, Integer::sum);
+        }
+
+        public synchronized int onHand(String name) {
+            return onHand.get(name);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        String[] names = new String[productCount];
+        Map<String, Integer> stock = new HashMap<>();
+        for (int i = 0; i < productCount; i++) {
+            names[i] = "product-" + i;
+            stock.put(names[i], INITIAL_STOCK);
+        }
+
+        System.out.printf("%-8s %8s %16s %10s%n", "store", "threads", "ops/s", "oversold");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run("locked", new LockedMapStore(stock), names, threads, seconds);
+            run("engine", new EngineStore(stock), names, threads, seconds);
+        }
+    }
+
+    private static void run(String label, Store store, String[] names, int threads, int seconds)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder operations = new LongAdder();
+        LongAdder[] sold = new LongAdder[names.length];
+        for (int i = 0; i < sold.length; i++) {
+            sold[i] = new LongAdder();
+        }
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                while (!stop.get()) {
+                    // Half of all scans hit one of a few best sellers
+                    int index = random.nextBoolean() ? random.nextInt(HOT_PRODUCTS) : random.nextInt(names.length);
+                    int quantity = 1 + random.nextInt(3);
+                    if (store.reserve(names[index], quantity)) {
+                        if (random.nextInt(10) == 0) {
+                            store.release(names[index], quantity);
+                        } else {
+                            store.commit(names[index], quantity);
+                            sold[index].add(quantity);
+                        }
+                    }
+                    ops++;
+                }
+                operations.add(ops);
+                done.countDown();
+            }).start();
+        }
+
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        done.await();
+
+        long oversold = 0;
+        for (int i = 0; i < names.length; i++) {
+            long expected = INITIAL_STOCK - sold[i].sum();
+            int actual = store.onHand(names[i]);
+            if (actual != expected || actual < 0) {
+                oversold += Math.abs(expected - actual);
+            }
+        }
+        System.out.printf("%-8s %8d %,16d %10d%n", label, threads, operations.sum() / seconds, oversold);
+    }
+}
@@ -0,0 +1,483 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import sales.core.BarcodeIndex;
+import sales.core.CartLine;
+import sales.core.CatalogBatch;
+import sales.core.CatalogJournal;
+import sales.core.CatalogStore;
+import sales.core.CheckoutService;
+import sales.core.CheckoutSession;
+import sales.core.InventoryEngine;
+import sales.core.LatencyHistogram;
+import sales.core.Metrics;
+import sales.core.PersistenceService;
+import sales.core.PricingEngine;
+import sales.core.ProductSearchIndex;
+import sales.core.Receipt;
+import sales.core.SalesLedger;
+
+// A Saturday rush without the GUI: synthetic cashiers doing what the Cashier panel does (search,
+// add, remove, abandon, checkout) and an Admin restocking low products in batches, all against the
+// real core with a real journal, snapshot and sales ledger in a temporary data directory. Or replays
+// the sales recorded in a ledger, one cashier per original lane. Reports throughput, latency
+// percentiles, persistence lag and whether stock in memory and on disk adds up afterwards.
+//
+// Usage: java -cp target/benchmarks.jar sales.bench.LoadGenerator [option=value ...]
+//   cashiers=16       concurrent cashiers (synthetic mode)
+//   seconds=30        run time; a replay ends when the log does
+//   products=10000    synthetic catalog size
+//   stock=200         starting stock per product
+//   basket=geometric:8  items per basket: geometric:MEAN, uniform:MIN-MAX or fixed:N
+//   skew=1.0          Zipf exponent of product popularity, 0 for uniform
+//   think=500         mean milliseconds between a cashier's scans, exponentially distributed
+//   pay=3000          mean milliseconds taken to pay at checkout
+//   search=0.3        share of items found by typing a search rather than scanned
+//   remove=0.05       share of items taken back off the cart
+//   abandon=0.02      share of baskets abandoned before checkout
+//   restock=1000      milliseconds between Admin restock batches, 0 for none
+//   reorder=20        restock products whose available stock falls to this
+//   promotions=0      number of synthetic promotions
+//   replay=DIR|FILE   replay a sales ledger directory or segment instead of synthetic baskets
+//   speed=0           replay speed relative to the recorded times, 0 for as fast as possible
+//   keep=false        keep the data directory afterwards
+public class LoadGenerator {
+    private static final String[] LATENCIES = {"load.search", "load.add", "load.remove", "load.checkout",
+        "load.restock", "persist.lag", "persist.journal", "persist.snapshot"};
+
+    private record Sale(long time, String lane, List<CartLine> lines) {}
+
+    private final Map<String, String> options;
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    private String[] names;
+    private double[] popularity;
+    private Map<String, Integer> initialStock;
+    private Map<String, Double> products;
+    private Map<String, String> categories;
+    private InventoryEngine inventory;
+    private ProductSearchIndex searchIndex;
+    private PersistenceService persistence;
+    private SalesLedger ledger;
+    private CheckoutService service;
+    private File directory;
+
+    private final Map<String, LongAdder> sold = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> restocked = new ConcurrentHashMap<>();
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder restockBatches = new LongAdder();
+    private final AtomicInteger maxPending = new AtomicInteger();
+
+    private final LatencyHistogram searchLatency = Metrics.histogram("load.search");
+    private final LatencyHistogram addLatency = Metrics.histogram("load.add");
+    private final LatencyHistogram removeLatency = Metrics.histogram("load.remove");
+    private final LatencyHistogram checkoutLatency = Metrics.histogram("load.checkout");
+    private final LatencyHistogram restockLatency = Metrics.histogram("load.restock");
+
+    LoadGenerator(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                System.err.println("Options are name=value, e.g. cashiers=32 seconds=60");
+                System.exit(2);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return Double.parseDouble(option(name, String.valueOf(defaultValue)));
+    }
+
+    void run() throws Exception {
+        String replay = options.get("replay");
+        List<Sale> sales = replay == null ? null : readSales(new File(replay));
+        if (sales != null && sales.isEmpty()) {
+            System.err.println("No sales found in " + replay);
+            System.exit(1);
+        }
+        if (sales == null) {
+            buildSyntheticCatalog();
+        } else {
+            buildCatalogFor(sales);
+        }
+        open();
+
+        List<Future<?>> lanes = new ArrayList<>();
+        long start = System.nanoTime();
+        if (sales == null) {
+            for (int lane = 0; lane < intOption("cashiers", 16); lane++) {
+                lanes.add(service.runLane("lane-" + lane, this::shop));
+            }
+        } else {
+            Map<String, List<Sale>> byLane = new LinkedHashMap<>();
+            for (Sale sale : sales) {
+                byLane.computeIfAbsent(sale.lane(), k -> new ArrayList<>()).add(sale);
+            }
+            long firstTime = sales.get(0).time();
+            byLane.forEach((lane, laneSales) ->
+                lanes.add(service.runLane(lane, session -> replay(session, laneSales, firstTime, start))));
+        }
+        Thread admin = new Thread(this::restock, "load-admin");
+        admin.setDaemon(true);
+        admin.start();
+
+        // Sample the persistence backlog until the run is over
+        long deadline = sales == null ? start + intOption("seconds", 30) * 1_000_000_000L : Long.MAX_VALUE;
+        while (System.nanoTime() < deadline && !allDone(lanes)) {
+            maxPending.accumulateAndGet(persistence.getPending(), Math::max);
+            Thread.sleep(50);
+        }
+        stop.set(true);
+        for (Future<?> lane : lanes) {
+            lane.get();
+        }
+        admin.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long drainStart = System.nanoTime();
+        service.shutdown(1000);
+        boolean drained = persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+        double drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+        ledger.close();
+
+        report(elapsed, drained, drainSeconds);
+        if (Boolean.parseBoolean(option("keep", "false"))) {
+            System.out.println("data kept in " + directory);
+        } else {
+            SyntheticCatalog.deleteDirectory(directory);
+        }
+    }
+
+    private static boolean allDone(List<Future<?>> lanes) {
+        for (Future<?> lane : lanes) {
+            if (!lane.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void buildSyntheticCatalog() {
+        names = SyntheticCatalog.names(intOption("products", 10000));
+        products = new ConcurrentHashMap<>(SyntheticCatalog.products(names));
+        initialStock = SyntheticCatalog.stock(names, intOption("stock", 200));
+        categories = new ConcurrentHashMap<>(SyntheticCatalog.categories(names));
+
+        // Cumulative Zipf weights, so a few best sellers take most of the scans
+        double skew = doubleOption("skew", 1.0);
+        popularity = new double[names.length];
+        double total = 0;
+        for (int rank = 0; rank < names.length; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            popularity[rank] = total;
+        }
+    }
+
+    // A catalog holding every product in the log, priced as last sold and stocked to cover it all
+    private void buildCatalogFor(List<Sale> sales) {
+        products = new ConcurrentHashMap<>();
+        initialStock = new HashMap<>();
+        categories = new ConcurrentHashMap<>();
+        for (Sale sale : sales) {
+            for (CartLine line : sale.lines()) {
+                products.put(line.name(), line.unitCents() / 100.0);
+                initialStock.merge(line.name(), line.quantity(), Integer::sum);
+            }
+        }
+        initialStock.replaceAll((name, units) -> units + intOption("stock", 200));
+        names = products.keySet().toArray(new String[0]);
+    }
+
+    private void open() throws IOException {
+        directory = Files.createTempDirectory("sales-load").toFile();
+        CatalogStore store = new CatalogStore(directory);
+        store.write(products, initialStock, new BarcodeIndex(), new HashMap<>(), categories, 1);
+        CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), 10_000);
+        journal.replay(1, new HashMap<>(), new HashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        inventory = new InventoryEngine(initialStock);
+        persistence = new PersistenceService(journal, products, initialStock, new BarcodeIndex(), new HashMap<>(),
+            categories, store);
+        searchIndex = new ProductSearchIndex(products.keySet(), categories);
+        ledger = new SalesLedger(new File(directory, "sales"));
+        PricingEngine pricing = new PricingEngine(SyntheticCatalog.promotions(names, intOption("promotions", 0)), categories);
+        service = new CheckoutService(products, inventory, pricing, persistence, ledger);
+        for (String name : names) {
+            sold.put(name, new LongAdder());
+            restocked.put(name, new LongAdder());
+        }
+    }
+
+    // One synthetic cashier: baskets one after another until the run ends
+    private void shop(CheckoutSession session) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double searchShare = doubleOption("search", 0.3);
+        double removeShare = doubleOption("remove", 0.05);
+        double abandonShare = doubleOption("abandon", 0.02);
+        long think = intOption("think", 500);
+        long pay = intOption("pay", 3000);
+        String basket = option("basket", "geometric:8");
+
+        while (!stop.get()) {
+            int items = basketSize(basket, random);
+            for (int item = 0; item < items && !stop.get(); item++) {
+                pause(think, random);
+                String name = names[pick(random)];
+                if (random.nextDouble() < searchShare) {
+                    search(name, random);
+                }
+                add(session, name, random.nextInt(5) == 0 ? 2 + random.nextInt(3) : 1);
+                if (session.getLineCount() > 0 && random.nextDouble() < removeShare) {
+                    long start = System.nanoTime();
+                    session.remove(random.nextInt(session.getLineCount()));
+                    removeLatency.recordSince(start);
+                    removals.increment();
+                }
+            }
+            if (stop.get()) {
+                break;
+            }
+            if (random.nextDouble() < abandonShare) {
+                session.clear();
+                abandoned.increment();
+                continue;
+            }
+            pause(pay, random);
+            checkout(session);
+        }
+    }
+
+    // One recorded lane, sale by sale, at the recorded pace scaled by speed
+    private void replay(CheckoutSession session, List<Sale> sales, long firstTime, long start) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double speed = doubleOption("speed", 0);
+        double searchShare = doubleOption("search", 0.3);
+        for (Sale sale : sales) {
+            if (stop.get()) {
+                break;
+            }
+            if (speed > 0) {
+                long due = start + (long) ((sale.time() - firstTime) * 1_000_000 / speed);
+                long wait = (due - System.nanoTime()) / 1_000_000;
+                if (wait > 0) {
+                    sleep(wait);
+                }
+            }
+            for (CartLine line : sale.lines()) {
+                if (random.nextDouble() < searchShare) {
+                    search(line.name(), random);
+                }
+                add(session, line.name(), line.quantity());
+            }
+            checkout(session);
+        }
+    }
+
+    // Types part of the name, a keystroke at a time as the search field would see it
+    private void search(String name, ThreadLocalRandom random) {
+        int from = random.nextInt(Math.max(1, name.length() - 3));
+        int length = Math.min(name.length() - from, 3 + random.nextInt(4));
+        for (int typed = 1; typed <= length; typed++) {
+            long start = System.nanoTime();
+            searchIndex.search(name.substring(from, from + typed));
+            searchLatency.recordSince(start);
+            searches.increment();
+        }
+    }
+
+    private void add(CheckoutSession session, String name, int quantity) {
+        long start = System.nanoTime();
+        int line = session.add(name, quantity);
+        addLatency.recordSince(start);
+        scans.increment();
+        if (line < 0) {
+            unavailable.increment();
+        }
+    }
+
+    private void checkout(CheckoutSession session) {
+        long start = System.nanoTime();
+        try {
+            Receipt receipt = session.checkout();
+            checkoutLatency.recordSince(start);
+            if (receipt != null) {
+                for (CartLine line : receipt.lines()) {
+                    sold.get(line.name()).add(line.quantity());
+                }
+            }
+        } catch (UncheckedIOException e) {
+            failed.increment();
+            session.clear();
+        }
+    }
+
+    // The Admin side: every so often, one batch topping up whatever has run low
+    private void restock() {
+        int interval = intOption("restock", 1000);
+        int reorderLevel = intOption("reorder", 20);
+        int target = intOption("stock", 200);
+        while (interval > 0 && !stop.get()) {
+            sleep(interval);
+            long start = System.nanoTime();
+            CatalogBatch batch = new CatalogBatch();
+            for (String name : names) {
+                if (inventory.getAvailable(name) <= reorderLevel) {
+                    int units = target - inventory.getOnHand(name);
+                    if (units > 0) {
+                        batch.restock(name, units);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                batch.commit(products, inventory, categories, searchIndex, persistence);
+                for (CatalogBatch.Edit edit : batch.getEdits()) {
+                    restocked.get(edit.name()).add(edit.stockDelta());
+                }
+                restockBatches.increment();
+            }
+            restockLatency.recordSince(start);
+        }
+    }
+
+    private int basketSize(String basket, ThreadLocalRandom random) {
+        String[] spec = basket.split(":");
+        switch (spec[0]) {
+            case "fixed":
+                return Integer.parseInt(spec[1]);
+            case "uniform":
+                String[] range = spec[1].split("-");
+                return random.nextInt(Integer.parseInt(range[0]), Integer.parseInt(range[1]) + 1);
+            case "geometric":
+                double mean = Double.parseDouble(spec[1]);
+                return 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - 1 / mean));
+            default:
+                throw new IllegalArgumentException("Unknown basket distribution " + basket);
+        }
+    }
+
+    private int pick(ThreadLocalRandom random) {
+        int index = Arrays.binarySearch(popularity, random.nextDouble() * popularity[popularity.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, names.length - 1);
+    }
+
+    private static void pause(long meanMillis, ThreadLocalRandom random) {
+        if (meanMillis > 0) {
+            sleep((long) (-Math.log(1 - random.nextDouble()) * meanMillis));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Sale> readSales(File source) throws IOException {
+        List<File> segments = source.isDirectory() ? SalesLedger.segments(source) : List.of(source);
+        List<Sale> sales = new ArrayList<>();
+        for (File segment : segments) {
+            SalesLedger.scanSegment(segment, new SalesLedger.SegmentVisitor() {
+                private List<CartLine> lines;
+
+                @Override
+                public void sale(long time, String laneId, int lineCount, long totalCents) {
+                    lines = new ArrayList<>(lineCount);
+                    sales.add(new Sale(time, laneId, lines));
+                }
+
+                @Override
+                public void line(String name, int quantity, long unitCents, long discountCents) {
+                    lines.add(new CartLine(name, quantity, unitCents));
+                }
+            });
+        }
+        sales.sort((a, b) -> Long.compare(a.time(), b.time()));
+        return sales;
+    }
+
+    private void report(double elapsed, boolean drained, double drainSeconds) throws IOException {
+        long checkouts = service.getCheckoutCount();
+        System.out.printf("%s, %d products, %.1f s%n", options.containsKey("replay") ? "replay " + options.get("replay")
+            : intOption("cashiers", 16) + " cashiers", names.length, elapsed);
+        System.out.printf("checkouts: %,d (%,.1f/s), items sold: %,d (%,.1f/s)%n",
+            checkouts, checkouts / elapsed, service.getItemsSold(), service.getItemsSold() / elapsed);
+        System.out.printf("scans: %,d, out of stock: %,d, removed: %,d, abandoned: %,d, failed checkouts: %,d%n",
+            scans.sum(), unavailable.sum(), removals.sum(), abandoned.sum(), failed.sum());
+        System.out.printf("searches: %,d keystrokes, restock batches: %,d%n", searches.sum(), restockBatches.sum());
+
+        System.out.printf("%n%-18s %10s %10s %10s %10s %10s %10s%n", "latency (us)", "count", "p50", "p90", "p99", "p99.9", "max");
+        for (String name : LATENCIES) {
+            LatencyHistogram histogram = Metrics.histogram(name);
+            System.out.printf("%-18s %,10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, histogram.getCount(),
+                histogram.getPercentile(50) / 1e3, histogram.getPercentile(90) / 1e3, histogram.getPercentile(99) / 1e3,
+                histogram.getPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+        }
+        System.out.printf("%npersistence: max backlog %,d mutations, drained in %.2f s%s%n",
+            maxPending.get(), drainSeconds, drained ? "" : " (TIMED OUT)");
+
+        // Every product should hold what it started with, plus deliveries, minus sales, with no
+        // units left reserved; and the catalog on disk should say the same
+        int wrong = 0;
+        int reserved = 0;
+        for (String name : names) {
+            long expected = initialStock.get(name) + restocked.get(name).sum() - sold.get(name).sum();
+            if (inventory.getOnHand(name) != expected) {
+                wrong++;
+            }
+            if (inventory.getReserved(name) != 0) {
+                reserved++;
+            }
+        }
+        Map<String, Double> savedProducts = new HashMap<>();
+        Map<String, Integer> savedStock = new HashMap<>();
+        CatalogStore store = new CatalogStore(directory);
+        long epoch = store.load(savedProducts, savedStock, new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+        journal.replay(epoch, savedProducts, savedStock, new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+        journal.close();
+        int unsaved = 0;
+        for (String name : names) {
+            if (savedStock.getOrDefault(name, -1) != inventory.getOnHand(name)) {
+                unsaved++;
+            }
+        }
+        System.out.printf("stock consistent: %b (%d wrong, %d still reserved), on disk: %b (%d differ)%n",
+            wrong == 0 && reserved == 0, wrong, reserved, unsaved == 0, unsaved);
+    }
+}
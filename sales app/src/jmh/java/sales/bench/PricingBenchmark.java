@@ -0,0 +1,130 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CheckoutService;
+import sales.core.CheckoutSession;
+import sales.core.InventoryEngine;
+import sales.core.Money;
+import sales.core.PersistenceService;
+import sales.core.PricingEngine;
+import sales.core.Promotion;
+import sales.core.SalesLedger;
+
+// Cart re-price latency with thousands of live promotions: adding an item and applying the best
+// deal to its line, the compiled plan lookup on its own, and for comparison checking every
+// promotion against the line as an uncompiled rule list would
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"10000"})
+        public int catalogSize;
+
+        @Param({"0", "1000", "10000"})
+        public int promotionCount;
+
+        @Param({"50", "5000"})
+        public int basketLines;
+
+        String[] names;
+        long[] unitCents;
+        List<Promotion> promotions;
+        Map<String, String> categories;
+        PricingEngine pricing;
+        File directory;
+        PersistenceService persistence;
+        SalesLedger ledger;
+        CheckoutService service;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            names = SyntheticCatalog.names(catalogSize);
+            Map<String, Double> products = new ConcurrentHashMap<>(SyntheticCatalog.products(names));
+            unitCents = new long[names.length];
+            for (int i = 0; i < names.length; i++) {
+                unitCents[i] = Money.toCents(products.get(names[i]));
+            }
+            promotions = SyntheticCatalog.promotions(names, promotionCount);
+            categories = new ConcurrentHashMap<>(SyntheticCatalog.categories(names));
+            pricing = new PricingEngine(promotions, categories);
+            Map<String, Integer> stock = SyntheticCatalog.stock(names, Integer.MAX_VALUE / 2);
+            directory = SyntheticCatalog.writeDataDirectory(0);
+            CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+            journal.replay(1, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new BarcodeIndex(), new HashMap<>(), new HashMap<>());
+            persistence = new PersistenceService(journal, products, stock, new BarcodeIndex(), new HashMap<>(), new HashMap<>(), (p, i, b, r, c, epoch) -> { });
+            ledger = new SalesLedger(new File(directory, "sales"));
+            service = new CheckoutService(products, new InventoryEngine(stock), pricing, persistence, ledger);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            service.shutdown(1000);
+            persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+            ledger.close();
+            SyntheticCatalog.deleteDirectory(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lane {
+        CheckoutSession session;
+
+        @Setup(Level.Trial)
+        public void setUp(Store store) {
+            session = store.service.openSession(Thread.currentThread().getName());
+        }
+    }
+
+    // Add to cart including the re-price of the touched line
+    @Benchmark
+    public int addAndReprice(Store store, Lane lane) {
+        if (lane.session.getLineCount() >= store.basketLines) {
+            lane.session.clear();
+        }
+        String name = store.names[ThreadLocalRandom.current().nextInt(store.names.length)];
+        return lane.session.add(name, 1);
+    }
+
+    @Benchmark
+    public Promotion planLookup(Store store) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int product = random.nextInt(store.names.length);
+        return store.pricing.plan().best(store.names[product], 1 + random.nextInt(6), store.unitCents[product]);
+    }
+
+    @Benchmark
+    public Promotion linearScan(Store store) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int product = random.nextInt(store.names.length);
+        String name = store.names[product];
+        String category = store.categories.get(name);
+        int quantity = 1 + random.nextInt(6);
+        long now = System.currentTimeMillis();
+        Promotion best = null;
+        long bestDiscount = 0;
+        for (Promotion rule : store.promotions) {
+            if (rule.isActive(now) && rule.target().equals(rule.category() ? category : name)) {
+                long discount = rule.discountCents(quantity, store.unitCents[product]);
+                if (discount > bestDiscount) {
+                    best = rule;
+                    bestDiscount = discount;
+                }
+            }
+        }
+        return best;
+    }
+}
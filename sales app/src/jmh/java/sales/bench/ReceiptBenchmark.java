@@ -0,0 +1,87 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.CartLine;
+import sales.core.Money;
+import sales.core.Receipt;
+import sales.core.ReceiptSpooler;
+
+// Receipt rendering: the old per-receipt SimpleDateFormat and String.format path, format() and
+// appending into one reused buffer as the spooler does, plus handing a receipt to the spooler
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptBenchmark {
+    @Param({"5", "50"})
+    public int basketLines;
+
+    private Receipt receipt;
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private File directory;
+    private ReceiptSpooler spooler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] names = SyntheticCatalog.names(basketLines);
+        List<CartLine> lines = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < basketLines; i++) {
+            CartLine line = new CartLine(names[i], 1 + i % 3, 199 + i * 37L, i % 4 == 0 ? 50 : 0, "Test deal");
+            lines.add(line);
+            total += line.amountCents();
+        }
+        receipt = new Receipt("lane-1", new Date(), lines, total);
+        directory = SyntheticCatalog.writeDataDirectory(0);
+        spooler = new ReceiptSpooler(new File(directory, "receipts"), 1 << 16);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        spooler.shutdown(10_000);
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        StringBuilder text = new StringBuilder();
+        text.append("=== SALES RECEIPT ===\n");
+        text.append("Date: ").append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(receipt.time())).append("\n\n");
+        for (CartLine line : receipt.lines()) {
+            text.append(String.format("%s x%d - $%s", line.name(), line.quantity(), Money.format(line.amountCents())))
+                .append("\n");
+        }
+        text.append("\nTotal Amount: $").append(Money.format(receipt.totalCents()));
+        return text.toString();
+    }
+
+    @Benchmark
+    public String format() {
+        return receipt.format();
+    }
+
+    @Benchmark
+    public int appendReused() {
+        buffer.setLength(0);
+        return receipt.appendTo(buffer).length();
+    }
+
+    // Fed flat out, so on few cores this is bound by the spooler thread's rendering and writing
+    // rather than by the hand-off checkout pays
+    @Benchmark
+    public boolean submit() {
+        while (spooler.getPending() > 60_000) {
+            Thread.onSpinWait();
+        }
+        return spooler.submit(receipt);
+    }
+}
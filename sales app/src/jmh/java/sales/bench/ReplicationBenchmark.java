@@ -0,0 +1,112 @@
+package sales.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import sales.core.ReplicationService;
+
+// Simulates stores selling and restocking against one drop directory, each syncing on its own
+// thread, then reports how many stock changes were shipped per second and how long the replicas
+// took to agree once the selling stopped. A new node's first sync of everything is timed last.
+// Usage: java -cp target/benchmarks.jar sales.bench.ReplicationBenchmark [stores] [products] [seconds] [syncMillis]
+public class ReplicationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int storeCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int productCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long syncMillis = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        File directory = Files.createTempDirectory("replication-bench").toFile();
+        String[] names = SyntheticCatalog.names(productCount);
+        Map<String, Integer> initial = SyntheticCatalog.stock(names, 1000);
+        List<ReplicationService> stores = new ArrayList<>();
+        for (int i = 0; i < storeCount; i++) {
+            ReplicationService store = new ReplicationService(directory, "store-" + i);
+            store.seed(initial);
+            store.start(syncMillis);
+            stores.add(store);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder changes = new LongAdder();
+        List<Thread> tills = new ArrayList<>();
+        for (ReplicationService store : stores) {
+            Thread till = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Map<String, Integer> onHand = new HashMap<>(initial);
+                while (!stop.get()) {
+                    // A checkout's worth of stock changes, as the persistence writer would report them
+                    Map<String, Integer> changed = new HashMap<>();
+                    for (int item = 1 + random.nextInt(8); item > 0; item--) {
+                        String name = names[random.nextInt(names.length)];
+                        int stock = onHand.get(name);
+                        stock = stock > 0 && random.nextInt(20) > 0 ? stock - 1 : stock + 50;
+                        onHand.put(name, stock);
+                        changed.put(name, stock);
+                    }
+                    store.stockChanged(changed);
+                    changes.add(changed.size());
+                    Thread.onSpinWait();
+                }
+            }, "till-" + store.getNode());
+            till.start();
+            tills.add(till);
+        }
+
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread till : tills) {
+            till.join();
+        }
+        long stopped = System.nanoTime();
+        double elapsed = (stopped - start) / 1e9;
+
+        while (!converged(stores, names)) {
+            Thread.sleep(1);
+        }
+        double convergence = (System.nanoTime() - stopped) / 1e6;
+        for (ReplicationService store : stores) {
+            store.stop();
+        }
+
+        ReplicationService joiner = new ReplicationService(directory, "store-new");
+        long pullStart = System.nanoTime();
+        int pulled = joiner.sync();
+        double pullMillis = (System.nanoTime() - pullStart) / 1e6;
+        joiner.stop();
+        long total = 0;
+        for (String name : names) {
+            total += stores.get(0).getCounters().getStock(name);
+        }
+        boolean joinerAgrees = true;
+        for (String name : names) {
+            joinerAgrees &= joiner.getCounters().getStock(name) == stores.get(0).getCounters().getStock(name);
+        }
+        SyntheticCatalog.deleteDirectory(directory);
+
+        System.out.printf("stores=%d products=%d sync every %d ms%n", storeCount, productCount, syncMillis);
+        System.out.printf("stock changes: %,d (%,.0f/s)%n", changes.sum(), changes.sum() / elapsed);
+        System.out.printf("converged %.1f ms after the last change, network stock %,d%n", convergence, total);
+        System.out.printf("new node pulled %,d entries in %.1f ms (%,.0f/s), agrees: %b%n",
+            pulled, pullMillis, pulled / (pullMillis / 1000), joinerAgrees);
+    }
+
+    private static boolean converged(List<ReplicationService> stores, String[] names) {
+        for (String name : names) {
+            long stock = stores.get(0).getCounters().getStock(name);
+            for (int i = 1; i < stores.size(); i++) {
+                if (stores.get(i).getCounters().getStock(name) != stock) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package sales.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import sales.core.ProductSearchIndex;
+
+// Product search latency against catalog size, indexed versus the old linear contains() scan, and
+// with a category filter, intersected in the index versus checking each name match's category
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String[] QUERIES = {"milk", "coffee b", "#123", "nordic ch", "6-p", "zzz"};
+    private static final String[] TYPING = {"g", "gr", "gre", "gree", "green", "green ", "green t"};
+    private static final String[] FILTERS = {"Milk", "Socks", "Cereal", "Headphones"};
+    private static final String[] FILTERED_QUERIES = {"", "nordic", "6-p", "#12"};
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private List<String> names;
+    private Map<String, String> categories;
+    private ProductSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] generated = SyntheticCatalog.names(catalogSize);
+        names = Arrays.asList(generated);
+        categories = SyntheticCatalog.categories(generated);
+        index = new ProductSearchIndex(names, categories);
+    }
+
+    @Benchmark
+    public List<String> indexedQuery() {
+        return index.search(QUERIES[next++ % QUERIES.length]);
+    }
+
+    // One search per keystroke while a word is typed, as the keyReleased handlers do
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public int indexedTyping() {
+        int found = 0;
+        for (String query : TYPING) {
+            found += index.search(query).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<String> linearScan() {
+        String query = QUERIES[next++ % QUERIES.length];
+        List<String> matches = new ArrayList<>();
+        for (String name : names) {
+            if (name.toLowerCase().contains(query)) {
+                matches.add(name);
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<String> indexedCategoryQuery() {
+        int i = next++;
+        return index.search(FILTERED_QUERIES[i % FILTERED_QUERIES.length], FILTERS[i % FILTERS.length], () -> false);
+    }
+
+    // Name search first, then each match's category looked up
+    @Benchmark
+    public List<String> filterAfterSearch() {
+        int i = next++;
+        String query = FILTERED_QUERIES[i % FILTERED_QUERIES.length];
+        String category = FILTERS[i % FILTERS.length];
+        List<String> matches = new ArrayList<>();
+        for (String name : query.isEmpty() ? names : index.search(query)) {
+            if (category.equals(categories.get(name))) {
+                matches.add(name);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,137 @@
+package sales.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogJournal;
+import sales.core.CatalogStore;
+import sales.core.Promotion;
+
+// Deterministic store catalogs of any size for the benchmarks
+public final class SyntheticCatalog {
+    private static final String[] BRANDS = {
+        "Acme", "Sunny", "Golden", "Farm", "Fresh", "Urban", "Nordic", "Royal", "Green", "Prime"
+    };
+    private static final String[] ITEMS = {
+        "Milk", "Bread", "Apple Juice", "Cheddar", "Coffee Beans", "Green Tea", "Rice", "Pasta",
+        "Tomato Sauce", "Olive Oil", "T-Shirt", "Socks", "Jeans", "USB Cable", "Headphones",
+        "Batteries", "Chocolate", "Yogurt", "Cereal", "Shampoo"
+    };
+    private static final String[] SIZES = {"Small", "Medium", "Large", "250g", "500g", "1kg", "1L", "6-Pack"};
+
+    private SyntheticCatalog() {
+    }
+
+    public static String[] names(int count) {
+        Random random = new Random(42);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = BRANDS[random.nextInt(BRANDS.length)] + " " + ITEMS[random.nextInt(ITEMS.length)]
+                + " " + SIZES[random.nextInt(SIZES.length)] + " #" + i;
+        }
+        return names;
+    }
+
+    public static Map<String, Double> products(String[] names) {
+        Random random = new Random(7);
+        Map<String, Double> products = new HashMap<>(names.length * 2);
+        for (String name : names) {
+            products.put(name, (50 + random.nextInt(20_000)) / 100.0);
+        }
+        return products;
+    }
+
+    public static Map<String, Integer> stock(String[] names, int stockEach) {
+        Map<String, Integer> stock = new HashMap<>(names.length * 2);
+        for (String name : names) {
+            stock.put(name, stockEach);
+        }
+        return stock;
+    }
+
+    // One category per kind of item, e.g. every "Milk" is in "Milk"
+    public static Map<String, String> categories(String[] names) {
+        Map<String, String> categories = new HashMap<>(names.length * 2);
+        for (String name : names) {
+            for (String item : ITEMS) {
+                if (name.contains(" " + item + " ")) {
+                    categories.put(name, item);
+                    break;
+                }
+            }
+        }
+        return categories;
+    }
+
+    // A mix of deals: mostly on single products, one in ten on a whole category, a quarter of them
+    // limited to a time window around now
+    public static List<Promotion> promotions(String[] names, int count) {
+        Random random = new Random(11);
+        long now = System.currentTimeMillis();
+        List<Promotion> promotions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Promotion.Type type = Promotion.Type.values()[random.nextInt(3)];
+            boolean category = random.nextInt(10) == 0;
+            String target = category ? ITEMS[random.nextInt(ITEMS.length)] : names[random.nextInt(names.length)];
+            int quantity = 1 + random.nextInt(type == Promotion.Type.MULTI_BUY ? 4 : 3);
+            if (type == Promotion.Type.MULTI_BUY) {
+                quantity++;
+            }
+            long value = type == Promotion.Type.PERCENT_OFF ? 5 + random.nextInt(46)
+                : type == Promotion.Type.AMOUNT_OFF ? 10 + random.nextInt(200) : 100 + random.nextInt(2000);
+            boolean windowed = random.nextInt(4) == 0;
+            promotions.add(new Promotion(i + 1, type, category, target, quantity, value,
+                windowed ? now - 3_600_000 : 0, windowed ? now + 86_400_000 : 0));
+        }
+        return promotions;
+    }
+
+    // In-store EAN-13 style codes (the 20-29 prefixes are reserved for retailer use), one per product
+    public static long[] codes(int count) {
+        long[] codes = new long[count];
+        for (int i = 0; i < count; i++) {
+            codes[i] = 2_000_000_000_000L + i * 7919L;
+        }
+        return codes;
+    }
+
+    public static BarcodeIndex barcodes(String[] names) {
+        long[] codes = codes(names.length);
+        BarcodeIndex barcodes = new BarcodeIndex();
+        for (int i = 0; i < names.length; i++) {
+            barcodes.put(names[i], codes[i]);
+        }
+        return barcodes;
+    }
+
+    // Writes a snapshot and an empty journal for count products into a fresh temporary data directory
+    public static File writeDataDirectory(int count) throws IOException {
+        File directory = Files.createTempDirectory("sales-bench").toFile();
+        String[] names = names(count);
+        new CatalogStore(directory).write(products(names), stock(names, 100), barcodes(names), new HashMap<>(), categories(names), 1);
+        CatalogJournal journal = new CatalogJournal(new File(directory, "catalog.journal"), Integer.MAX_VALUE);
+        journal.reset(1);
+        journal.close();
+        return directory;
+    }
+
+    public static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    deleteDirectory(file);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+}
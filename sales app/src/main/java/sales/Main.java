@@ -0,0 +1,345 @@
+package sales;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ArrayList;
+import java.io.*;
+import java.net.InetAddress;
+import java.util.Properties;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogArena;
+import sales.core.CatalogEvents;
+import sales.core.CatalogJournal;
+import sales.core.CatalogStore;
+import sales.core.CheckoutService;
+import sales.core.InventoryEngine;
+import sales.core.MetricEvents;
+import sales.core.Metrics;
+import sales.core.PersistenceService;
+import sales.core.PricingEngine;
+import sales.core.ProductSearchIndex;
+import sales.core.Promotion;
+import sales.core.PromotionStore;
+import sales.core.ReceiptSpooler;
+import sales.core.ReorderQueue;
+import sales.core.ReplicationService;
+import sales.core.SalesLedger;
+import sales.gui.Admin;
+import sales.gui.Cashier;
+import sales.gui.ReportsPanel;
+
+public class Main {
+    private JFrame frame;
+    private CatalogArena catalog;
+    private Map<String, Double> products;
+    private InventoryEngine inventory;
+    private CatalogEvents catalogEvents = new CatalogEvents();
+    private Map<String, String> categories;
+    private BarcodeIndex barcodes;
+    private Map<String, Integer> reorderLevels;
+    private ReorderQueue reorderQueue;
+    private PromotionStore promotionStore;
+    private PricingEngine pricing;
+    private JFrame loginFrame;
+    private Map<String, String> userPasswords;
+    private static final String DATA_DIR = "data";
+    private static final String USERS_FILE = "data/users.properties";
+    private static final String SALES_DIR = "data/sales";
+    private static final String RECEIPTS_DIR = "data/receipts";
+    private static final String JOURNAL_FILE = "data/catalog.journal";
+    private static final int COMPACT_THRESHOLD = 10000;
+    // Seconds between metrics.txt/metrics.json dumps in the data directory; 0 turns them off
+    private static final long METRICS_INTERVAL = Long.getLong("sales.metrics.interval", 60);
+    // Shared folder for stock replication between stores (off unless set), this store's id in it
+    // and the milliseconds between syncs
+    private static final String REPLICATION_DIR = System.getProperty("sales.replication.dir");
+    private static final String NODE_ID = System.getProperty("sales.node");
+    private static final long REPLICATION_INTERVAL = Long.getLong("sales.replication.interval", 1000);
+    // Reorder level for products without their own
+    private static final int REORDER_LEVEL = Integer.getInteger("sales.reorder.level", 5);
+    private CatalogStore store;
+    private CatalogJournal journal;
+    private PersistenceService persistence;
+    private CheckoutService checkoutService;
+    private SalesLedger salesLedger;
+    private ReceiptSpooler receiptSpooler;
+    private ProductSearchIndex searchIndex;
+    private ReplicationService replication;
+
+    public Main() {
+        // Create data directory if it doesn't exist
+        new File(DATA_DIR).mkdirs();
+        Metrics.startReporter(new File(DATA_DIR), METRICS_INTERVAL);
+        
+        // Prices, stock and categories live off the heap; the categories are read by checkout lanes
+        // when pricing category promotions
+        catalog = new CatalogArena(1024, "catalog.arena.bytes");
+        products = catalog.prices();
+        categories = catalog.categories();
+        barcodes = new BarcodeIndex();
+        reorderLevels = new HashMap<>();
+        userPasswords = new HashMap<>();
+        store = new CatalogStore(new File(DATA_DIR));
+        journal = new CatalogJournal(new File(JOURNAL_FILE), COMPACT_THRESHOLD);
+        promotionStore = new PromotionStore(new File(DATA_DIR));
+        
+        // Load data from files
+        loadData();
+        Map<String, Integer> onHand = inventory.snapshot();
+        persistence = new PersistenceService(journal, products, onHand, barcodes, reorderLevels, categories, store);
+        if (REPLICATION_DIR != null) {
+            startReplication(onHand);
+        }
+        try {
+            salesLedger = new SalesLedger(new File(SALES_DIR));
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error opening sales ledger!");
+            System.exit(1);
+        }
+        receiptSpooler = new ReceiptSpooler(new File(RECEIPTS_DIR), ReceiptSpooler.DEFAULT_CAPACITY);
+        checkoutService = new CheckoutService(products, inventory, pricing, persistence, salesLedger);
+        searchIndex = new ProductSearchIndex(products.keySet(), categories);
+        reorderQueue = new ReorderQueue(inventory, reorderLevels, REORDER_LEVEL);
+        
+        // If no users exist, create default ones
+        if (userPasswords.isEmpty()) {
+            userPasswords.put("admin", "admin123");
+            userPasswords.put("cashier", "cash123");
+            saveUsers();
+        }
+        
+        showLoginScreen();
+    }
+
+    private void loadData() {
+        long start = System.nanoTime();
+        MetricEvents.CatalogLoad event = new MetricEvents.CatalogLoad();
+        event.begin();
+        loadUsers();
+        Map<String, Integer> onHand = catalog.stock();
+        long snapshotEpoch = 0;
+        try {
+            snapshotEpoch = store.load(products, onHand, barcodes, reorderLevels, categories);
+        } catch (IOException e) {
+            // Starting empty would overwrite the catalog with nothing at the next snapshot
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error reading catalog snapshot!");
+            System.exit(1);
+        }
+        try {
+            journal.replay(snapshotEpoch, products, onHand, barcodes, reorderLevels, categories);
+        } catch (IOException e) {
+            // Carrying on with part of the journal applied would snapshot that and drop the rest
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error reading catalog journal!");
+            System.exit(1);
+        }
+        inventory = new InventoryEngine(catalog);
+        inventory.addListener(catalogEvents);
+        List<Promotion> promotions = new ArrayList<>();
+        try {
+            promotions = promotionStore.load();
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error reading promotions!");
+        }
+        pricing = new PricingEngine(promotions, categories);
+        Metrics.histogram("catalog.load").recordSince(start);
+        event.products = products.size();
+        event.epoch = snapshotEpoch;
+        event.commit();
+    }
+
+    private void startReplication(Map<String, Integer> onHand) {
+        String node = NODE_ID != null ? NODE_ID : defaultNodeId();
+        try {
+            replication = new ReplicationService(new File(REPLICATION_DIR), node);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error starting stock replication!");
+            return;
+        }
+        // Local stock changes reach the other stores once they are journaled here
+        persistence.addStockListener(replication);
+        replication.seed(onHand);
+        replication.start(REPLICATION_INTERVAL);
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().replaceAll("[^A-Za-z0-9._-]", "-");
+        } catch (IOException e) {
+            return "store";
+        }
+    }
+
+    private void stopReplication() {
+        if (replication != null) {
+            replication.stop();
+        }
+    }
+
+    private void loadUsers() {
+        Properties props = new Properties();
+        try (FileInputStream fis = new FileInputStream(USERS_FILE)) {
+            props.load(fis);
+            props.forEach((key, value) -> userPasswords.put((String)key, (String)value));
+        } catch (IOException e) {
+            System.out.println("No existing users file found. Will create new one.");
+        }
+    }
+
+    private void saveUsers() {
+        Properties props = new Properties();
+        props.putAll(userPasswords);
+        try (FileOutputStream fos = new FileOutputStream(USERS_FILE)) {
+            props.store(fos, "User Credentials");
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, "Error saving users data!");
+        }
+    }
+
+    private void showLoginScreen() {
+        loginFrame = new JFrame("Login - Sales Management System");
+        loginFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        loginFrame.setSize(300, 200);
+        loginFrame.setLayout(new BorderLayout());
+        loginFrame.setLocationRelativeTo(null);
+
+        JPanel loginPanel = new JPanel();
+        loginPanel.setLayout(new GridLayout(4, 1, 10, 10));
+        loginPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPasswordField passwordField = new JPasswordField();
+        JButton adminButton = new JButton("Login as Admin");
+        JButton cashierButton = new JButton("Login as Cashier");
+
+        adminButton.addActionListener(e -> {
+            if (verifyPassword("admin", passwordField.getPassword())) {
+                loginFrame.dispose();
+                initializeGUI("admin");
+            } else {
+                JOptionPane.showMessageDialog(loginFrame, 
+                    "Invalid password for admin", 
+                    "Login Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            }
+        });
+
+        cashierButton.addActionListener(e -> {
+            if (verifyPassword("cashier", passwordField.getPassword())) {
+                loginFrame.dispose();
+                initializeGUI("cashier");
+            } else {
+                JOptionPane.showMessageDialog(loginFrame, 
+                    "Invalid password for cashier", 
+                    "Login Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            }
+        });
+
+        loginPanel.add(new JLabel("Select your role:", SwingConstants.CENTER));
+        loginPanel.add(new JLabel("Enter Password:", SwingConstants.CENTER));
+        loginPanel.add(passwordField);
+        loginPanel.add(new JPanel() {{
+            setLayout(new GridLayout(1, 2, 5, 0));
+            add(adminButton);
+            add(cashierButton);
+        }});
+
+        loginFrame.add(loginPanel);
+        loginFrame.setVisible(true);
+    }
+
+    private boolean verifyPassword(String role, char[] password) {
+        String correctPassword = userPasswords.get(role);
+        return correctPassword != null && correctPassword.equals(new String(password));
+    }
+
+    private void initializeGUI(String role) {
+        frame = new JFrame("Sales Management System - " + role.toUpperCase());
+        frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        frame.setSize(1200, 700);
+        frame.setLayout(new GridLayout(1, 2));
+        frame.setLocationRelativeTo(null);
+
+        // Add window listener to flush pending saves before closing
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutdown();
+                frame.dispose();
+                System.exit(0);
+            }
+        });
+
+        Admin adminPanel = new Admin(products, inventory, categories, persistence, searchIndex, barcodes,
+                                     reorderQueue, pricing, promotionStore, replication, catalogEvents,
+                                     this::logout, frame);
+        Cashier cashierPanel = new Cashier(products, inventory, categories, persistence, searchIndex, barcodes,
+                                         checkoutService, receiptSpooler, catalogEvents, this::logout, frame);
+
+        if (role.equals("admin")) {
+            frame.add(adminPanel);
+            ReportsPanel reportsPanel = new ReportsPanel(new File(SALES_DIR), categories);
+            frame.add(reportsPanel);
+            reportsPanel.refresh();
+        } else {
+            frame.add(cashierPanel);
+        }
+
+        frame.setVisible(true);
+    }
+
+    // The next session reopens the journal, snapshot and today's ledger, so this one has to have
+    // closed them first. If the journal writer is still busy, exit rather than have two writers.
+    private void logout() {
+        boolean saved = shutdown();
+        frame.dispose();
+        if (!saved) {
+            System.exit(1);
+        }
+        new Main();
+    }
+
+    // Flushes pending saves and receipts and closes everything this session has open. Returns
+    // false if the journal writer did not finish in time.
+    private boolean shutdown() {
+        boolean saved = persistence.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS);
+        if (!saved) {
+            JOptionPane.showMessageDialog(frame, "Some changes may not have been saved!");
+        }
+        stopReplication();
+        if (!receiptSpooler.shutdown(PersistenceService.SHUTDOWN_TIMEOUT_MILLIS)) {
+            JOptionPane.showMessageDialog(frame, "Some receipts may not have been printed!");
+        }
+        closeSalesLedger();
+        catalog.close();
+        return saved;
+    }
+
+    private void closeSalesLedger() {
+        try {
+            salesLedger.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        
+        SwingUtilities.invokeLater(() -> new Main());
+    }
+}
+
@@ -0,0 +1,175 @@
+package sales.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Barcode (EAN/UPC or a numeric SKU) -> product name for scanning. Codes are the keys of an
+// open-addressed long table, so a scan is a multiply and a probe or two with nothing boxed.
+// 0 means "no barcode". A product has at most one code and a code belongs to one product.
+public class BarcodeIndex {
+    // Longest code that always fits in a long; GTIN-14 is the longest retail barcode
+    private static final int MAX_DIGITS = 18;
+
+    private long[] keys = new long[64];
+    private String[] names = new String[64];
+    private int size;
+    private final Map<String, Long> codes = new HashMap<>();
+
+    public BarcodeIndex() {
+    }
+
+    public BarcodeIndex(Map<String, Long> barcodes) {
+        barcodes.forEach(this::put);
+    }
+
+    // Digits of a scanned or typed code as a number, or 0 if it is not one. Leading zeros do not
+    // matter, so a UPC-A and its zero-padded EAN-13 form find the same product.
+    public static long parse(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end == start || end - start > MAX_DIGITS) {
+            return 0;
+        }
+        long code = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return code;
+    }
+
+    public static String format(long code) {
+        return code == 0 ? "" : Long.toString(code);
+    }
+
+    // The product with this code, or null
+    public synchronized String lookup(long code) {
+        if (code == 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(code) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == code) {
+                return names[slot];
+            }
+        }
+        return null;
+    }
+
+    // The product's code, or 0
+    public synchronized long barcodeOf(String name) {
+        Long code = codes.get(name);
+        return code == null ? 0 : code;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Gives the product this code, dropping its old one; 0 just drops it. A code that belonged to
+    // another product moves to this one, so check lookup() first where that would be a mistake.
+    public synchronized void put(String name, long code) {
+        Long old = codes.remove(name);
+        if (old != null) {
+            removeKey(old);
+        }
+        if (code == 0) {
+            return;
+        }
+        String previousOwner = lookup(code);
+        if (previousOwner != null) {
+            codes.remove(previousOwner);
+            removeKey(code);
+        }
+        insertKey(code, name);
+        codes.put(name, code);
+    }
+
+    public synchronized void remove(String name) {
+        put(name, 0);
+    }
+
+    // Keeps the code with a renamed product
+    public synchronized void rename(String oldName, String newName) {
+        if (!oldName.equals(newName)) {
+            long code = barcodeOf(oldName);
+            remove(oldName);
+            put(newName, code);
+        }
+    }
+
+    // A copy for saving or exporting off the calling thread
+    public synchronized Map<String, Long> snapshot() {
+        return new HashMap<>(codes);
+    }
+
+    private void insertKey(long code, String name) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(code) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = code;
+        names[slot] = name;
+        size++;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken
+    private void removeKey(long code) {
+        int mask = keys.length - 1;
+        int slot = hash(code) & mask;
+        while (keys[slot] != code) {
+            if (keys[slot] == 0) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                names[gap] = names[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        names[gap] = null;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        String[] oldNames = names;
+        keys = new long[oldKeys.length * 2];
+        names = new String[oldNames.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                names[slot] = oldNames[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,186 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cart lines held in parallel primitive arrays with an open-addressed name index, so adding a
+// scan allocates nothing once the arrays have grown and repeat scans merge in constant time.
+// Adding the same product at the same unit price bumps its existing line. A line's discount is set
+// by whoever prices it and is taken off its amount and the cart total.
+public final class Cart {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] unitCents = new long[INITIAL_CAPACITY];
+    private long[] discountCents = new long[INITIAL_CAPACITY];
+    private Promotion[] promotions = new Promotion[INITIAL_CAPACITY];
+    // Line index + 1 per slot, 0 when free; kept at most half full
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+    private long totalCents;
+    private long savingsCents;
+    private int itemCount;
+
+    // Returns the index of the line the quantity went to
+    public int add(String name, int quantity, long unitPrice) {
+        int slot = slotOf(name);
+        int line = slots[slot] - 1;
+        if (line < 0 || unitCents[line] != unitPrice) {
+            if (size == names.length) {
+                grow();
+                slot = slotOf(name);
+            }
+            line = size++;
+            names[line] = name;
+            unitCents[line] = unitPrice;
+            slots[slot] = line + 1;
+        }
+        quantities[line] += quantity;
+        totalCents += unitPrice * quantity;
+        itemCount += quantity;
+        return line;
+    }
+
+    public void remove(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException(line);
+        }
+        totalCents -= amountCents(line);
+        savingsCents -= discountCents[line];
+        itemCount -= quantities[line];
+        int tail = size - line - 1;
+        System.arraycopy(names, line + 1, names, line, tail);
+        System.arraycopy(quantities, line + 1, quantities, line, tail);
+        System.arraycopy(unitCents, line + 1, unitCents, line, tail);
+        System.arraycopy(discountCents, line + 1, discountCents, line, tail);
+        System.arraycopy(promotions, line + 1, promotions, line, tail);
+        size--;
+        names[size] = null;
+        quantities[size] = 0;
+        discountCents[size] = 0;
+        promotions[size] = null;
+        reindex();
+    }
+
+    // Replaces the line's discount, e.g. after its quantity changed
+    public void setDiscount(int line, long cents, Promotion promotion) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException(line);
+        }
+        totalCents += discountCents[line] - cents;
+        savingsCents += cents - discountCents[line];
+        discountCents[line] = cents;
+        promotions[line] = promotion;
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(quantities, 0, size, 0);
+        Arrays.fill(discountCents, 0, size, 0);
+        Arrays.fill(promotions, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+        totalCents = 0;
+        savingsCents = 0;
+        itemCount = 0;
+    }
+
+    // Index of the line new scans of this product merge into, or -1
+    public int indexOf(String name) {
+        return slots[slotOf(name)] - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String name(int line) {
+        return names[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    public long unitCents(int line) {
+        return unitCents[line];
+    }
+
+    public long discountCents(int line) {
+        return discountCents[line];
+    }
+
+    public Promotion promotion(int line) {
+        return promotions[line];
+    }
+
+    public long amountCents(int line) {
+        return unitCents[line] * quantities[line] - discountCents[line];
+    }
+
+    public long totalCents() {
+        return totalCents;
+    }
+
+    // Total of every line's discount
+    public long savingsCents() {
+        return savingsCents;
+    }
+
+    public int itemCount() {
+        return itemCount;
+    }
+
+    public CartLine line(int line) {
+        Promotion promotion = promotions[line];
+        return new CartLine(names[line], quantities[line], unitCents[line], discountCents[line],
+            promotion == null ? null : promotion.label());
+    }
+
+    public List<CartLine> lines() {
+        List<CartLine> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(line(i));
+        }
+        return lines;
+    }
+
+    // Slot holding the name, or the free slot where it would go
+    private int slotOf(String name) {
+        int mask = slots.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (slots[slot] != 0 && !names[slots[slot] - 1].equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        unitCents = Arrays.copyOf(unitCents, capacity);
+        discountCents = Arrays.copyOf(discountCents, capacity);
+        promotions = Arrays.copyOf(promotions, capacity);
+        slots = new int[capacity * 2];
+        reindex();
+    }
+
+    // Later lines win, so a product sold at two prices keeps merging into its newest line
+    private void reindex() {
+        Arrays.fill(slots, 0);
+        for (int i = 0; i < size; i++) {
+            slots[slotOf(names[i])] = i + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
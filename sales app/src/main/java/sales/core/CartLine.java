@@ -0,0 +1,28 @@
+package sales.core;
+
+// promotion is the label of the deal that gave the discount, or null
+public record CartLine(String name, int quantity, long unitCents, long discountCents, String promotion) {
+
+    public CartLine(String name, int quantity, long unitCents) {
+        this(name, quantity, unitCents, 0, null);
+    }
+
+    public long amountCents() {
+        return unitCents * quantity - discountCents;
+    }
+
+    public StringBuilder appendTo(StringBuilder text) {
+        text.append(name).append(" x").append(quantity).append(" - $");
+        Money.appendTo(text, amountCents());
+        if (discountCents != 0) {
+            text.append(" (").append(promotion).append(", save $");
+            Money.appendTo(text, discountCents).append(')');
+        }
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(64)).toString();
+    }
+}
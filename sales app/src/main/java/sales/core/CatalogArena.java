@@ -0,0 +1,784 @@
+package sales.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// The catalog kept off the Java heap, for stores with millions of products. Each product is a dense
+// slot: its name is UTF-8 in one byte arena, and its price, stock cell and category id are primitive
+// fields of a fixed-size row in a direct buffer. An open-addressed table keeps each name's hash next
+// to its slot, so a lookup compares names only on a hash match.
+// prices(), stock() and categories() are Map views over the same slots, so the arena drops in where
+// those maps were used; a slot is freed once none of the views holds its product. Lookups are
+// optimistic reads that retry under the read lock if a writer got in, in-place value updates hold
+// the read lock, and adding, removing and growing take the write lock.
+public class CatalogArena {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    // Returned by priceCents for a product without a price, and by updateCell for one without stock
+    // or when the update declined
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final int PRICE = 1;
+    private static final int STOCK = 2;
+    private static final int CATEGORY = 4;
+
+    // A slot's row. The fields sit together rather than in a buffer each because checkout looks up
+    // single products: a lookup reads one row, where separate columns would cost a cache miss apiece.
+    private static final int ROW = 32;
+    private static final int NAME_AT = 0;      // long, where the name starts in the arena << 32 | its UTF-8 bytes
+    private static final int PRICE_AT = 8;     // long, Double bits
+    private static final int CELL_AT = 16;     // long, on hand << 32 | reserved, packed as InventoryEngine does
+    private static final int CATEGORY_AT = 24; // int, into categoryNames
+    private static final int FLAGS_AT = 28;    // byte, which views hold the product; 0 for a free slot
+    private static final int AVERAGE_NAME_BYTES = 32;
+    private static final int COMPACT_MIN_GARBAGE = 1 << 16;
+
+    // A stock cell update for a compare-and-set loop; returns MISSING to leave the cell alone
+    interface CellUpdate {
+        long apply(long cell, int argument);
+    }
+
+    private final StampedLock lock = new StampedLock();
+    // Counts this arena's direct memory when it was given a metric, until close()
+    private LongAdder offHeapBytes;
+    private long allocated;
+
+    private ByteBuffer rows;
+    private int capacity;
+    private int used;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private ByteBuffer names;
+    private int nameTop;
+    private int nameGarbage;
+
+    // String.hashCode() of the name << 32 | slot + 1, 0 when free; kept at most half full. The hash
+    // sits next to the slot so probing never touches the rows.
+    private long[] table;
+    private int size;
+    private final int[] counts = new int[3];
+
+    // Few and shared by many products, so kept on the heap. Only added to, under the write lock.
+    private volatile String[] categoryNames = new String[0];
+    private final Map<String, Integer> categoryIndex = new ConcurrentHashMap<>();
+
+    private final Column<Double> priceView = new Column<>(PRICE) {
+        @Override
+        Double read(int slot) {
+            return Double.longBitsToDouble((long) LONGS.getVolatile(rows, slot * ROW + PRICE_AT));
+        }
+
+        @Override
+        void write(int slot, Double value) {
+            LONGS.setVolatile(rows, slot * ROW + PRICE_AT, Double.doubleToRawLongBits(value));
+        }
+    };
+
+    private final Column<Integer> stockView = new Column<>(STOCK) {
+        @Override
+        Integer read(int slot) {
+            return (int) ((long) LONGS.getVolatile(rows, slot * ROW + CELL_AT) >> 32);
+        }
+
+        // Keeps whatever is reserved in carts
+        @Override
+        void write(int slot, Integer value) {
+            long current;
+            do {
+                current = (long) LONGS.getVolatile(rows, slot * ROW + CELL_AT);
+            } while (!LONGS.compareAndSet(rows, slot * ROW + CELL_AT, current, ((long) value << 32) | (current & 0xFFFFFFFFL)));
+        }
+    };
+
+    private final Column<String> categoryView = new Column<>(CATEGORY) {
+        @Override
+        String read(int slot) {
+            return categoryNames[(int) INTS.getVolatile(rows, slot * ROW + CATEGORY_AT)];
+        }
+
+        @Override
+        boolean writesInPlace(String value) {
+            return categoryIndex.containsKey(value);
+        }
+
+        @Override
+        void write(int slot, String value) {
+            Integer id = categoryIndex.get(value);
+            if (id == null) {
+                id = categoryNames.length;
+                String[] grown = Arrays.copyOf(categoryNames, id + 1);
+                grown[id] = value;
+                categoryNames = grown;
+                categoryIndex.put(value, id);
+            }
+            INTS.setVolatile(rows, slot * ROW + CATEGORY_AT, (int) id);
+        }
+    };
+
+    public CatalogArena() {
+        this(1024);
+    }
+
+    public CatalogArena(int expectedProducts) {
+        this(expectedProducts, null);
+    }
+
+    // metric names a counter to report this arena's direct memory in, or is null
+    public CatalogArena(int expectedProducts, String metric) {
+        if (metric != null) {
+            offHeapBytes = Metrics.counter(metric);
+        }
+        capacity = Math.max(16, expectedProducts);
+        rows = allocate(capacity * ROW);
+        names = allocate(capacity * AVERAGE_NAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        table = new long[Integer.highestOneBit(capacity * 4 - 1)];
+        account();
+    }
+
+    public Map<String, Double> prices() {
+        return priceView;
+    }
+
+    // On-hand counts; a put keeps any units reserved in carts
+    public Map<String, Integer> stock() {
+        return stockView;
+    }
+
+    public Map<String, String> categories() {
+        return categoryView;
+    }
+
+    // Products held by any of the views
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Direct memory taken by the rows and the name arena, including room to grow
+    public long getOffHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return allocated;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Takes this arena's memory back out of its metric once it is done with. The buffers themselves
+    // are freed when the arena is collected.
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            if (offHeapBytes != null) {
+                offHeapBytes.add(-allocated);
+                offHeapBytes = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Heap taken by the slot index and free list
+    public long getHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return 8L * table.length + 4L * freeSlots.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The product's stock cell, or MISSING
+    long getCell(String name) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            long cell = readCell(name);
+            if (lock.validate(stamp)) {
+                return cell;
+            }
+        } catch (RuntimeException e) {
+            // Read the rows halfway through a change; retried below
+        }
+        stamp = lock.readLock();
+        try {
+            return readCell(name);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The product's price in whole cents, or MISSING. Checkout's lookup: unlike prices().get() it
+    // does not box.
+    public long priceCents(String name) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            long cents = readPriceCents(name);
+            if (lock.validate(stamp)) {
+                return cents;
+            }
+        } catch (RuntimeException e) {
+            // Read the rows halfway through a change; retried below
+        }
+        stamp = lock.readLock();
+        try {
+            return readPriceCents(name);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long readPriceCents(String name) {
+        int slot = find(name);
+        if (slot < 0 || !has(slot, PRICE)) {
+            return MISSING;
+        }
+        return Money.toCents(Double.longBitsToDouble((long) LONGS.getVolatile(rows, slot * ROW + PRICE_AT)));
+    }
+
+    // The arena whose prices() the map is, or null for any other map
+    static CatalogArena ofPrices(Map<String, Double> map) {
+        return map instanceof Column<?> column && column.arena().priceView == map ? column.arena() : null;
+    }
+
+    private long readCell(String name) {
+        int slot = find(name);
+        return slot < 0 || !has(slot, STOCK) ? MISSING : (long) LONGS.getVolatile(rows, slot * ROW + CELL_AT);
+    }
+
+    // Applies the update to the product's stock cell with a compare-and-set loop and returns the
+    // cell as it was before, or MISSING if the product has no stock or the update declined. With
+    // create, a product without stock first gets an empty cell.
+    long updateCell(String name, CellUpdate update, int argument, boolean create) {
+        long stamp = lock.readLock();
+        try {
+            int slot = find(name);
+            if (slot >= 0 && has(slot, STOCK)) {
+                return update(slot, update, argument);
+            }
+            if (!create) {
+                return MISSING;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        stamp = lock.writeLock();
+        try {
+            int slot = find(name);
+            if (slot < 0) {
+                slot = insert(name);
+            }
+            if (!has(slot, STOCK)) {
+                LONGS.setVolatile(rows, slot * ROW + CELL_AT, 0L);
+                setFlag(slot, STOCK);
+            }
+            return update(slot, update, argument);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long update(int slot, CellUpdate update, int argument) {
+        while (true) {
+            long current = (long) LONGS.getVolatile(rows, slot * ROW + CELL_AT);
+            long next = update.apply(current, argument);
+            if (next == MISSING) {
+                return MISSING;
+            }
+            if (LONGS.compareAndSet(rows, slot * ROW + CELL_AT, current, next)) {
+                return current;
+            }
+        }
+    }
+
+    private boolean has(int slot, int bit) {
+        return (rows.get(slot * ROW + FLAGS_AT) & bit) != 0;
+    }
+
+    // Caller holds the write lock
+    private void setFlag(int slot, int bit) {
+        rows.put(slot * ROW + FLAGS_AT, (byte) (rows.get(slot * ROW + FLAGS_AT) | bit));
+        counts[Integer.numberOfTrailingZeros(bit)]++;
+    }
+
+    // Caller holds the write lock. Frees the slot once no view holds the product.
+    private void clearFlag(int slot, int bit, int hash) {
+        int remaining = rows.get(slot * ROW + FLAGS_AT) & ~bit;
+        rows.put(slot * ROW + FLAGS_AT, (byte) remaining);
+        counts[Integer.numberOfTrailingZeros(bit)]--;
+        if (remaining == 0) {
+            free(slot, hash);
+        }
+    }
+
+    // Names that differ only in a trailing number have neighbouring hash codes, which would pile up
+    // into one long probe run without mixing, as in BarcodeIndex
+    private static int spread(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // The product's slot, or -1. Caller holds a lock or validates an optimistic read.
+    private int find(String name) {
+        int hash = name.hashCode();
+        long[] entries = table;
+        int mask = entries.length - 1;
+        for (int i = spread(hash) & mask; entries[i] != 0; i = (i + 1) & mask) {
+            if ((int) (entries[i] >>> 32) == hash) {
+                int slot = (int) entries[i] - 1;
+                if (nameEquals(slot, name)) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Compares the stored UTF-8 with the name's chars as they would encode, without encoding them:
+    // every lookup runs this, and checkout's lookups must not allocate. UTF-8 is never shorter than
+    // the UTF-16 name, which rules most other names out at once. ASCII runs compare eight bytes at
+    // a time.
+    private boolean nameEquals(int slot, String name) {
+        long ref = rows.getLong(slot * ROW + NAME_AT);
+        int at = (int) (ref >>> 32);
+        int end = at + (int) ref;
+        int chars = name.length();
+        if (end - at < chars) {
+            return false;
+        }
+        ByteBuffer arena = names;
+        int i = 0;
+        words:
+        while (i + 8 <= chars && at + 8 <= end) {
+            long word = 0;
+            for (int k = 0; k < 8; k++) {
+                char c = name.charAt(i + k);
+                if (c >= 0x80) {
+                    break words;
+                }
+                word |= (long) c << (k * 8);
+            }
+            if (arena.getLong(at) != word) {
+                return false;
+            }
+            i += 8;
+            at += 8;
+        }
+        while (i < chars) {
+            int c = name.charAt(i++);
+            if (c < 0x80) {
+                if (at == end || arena.get(at++) != (byte) c) {
+                    return false;
+                }
+                continue;
+            }
+            // The bytes String.getBytes(UTF_8) gives, most significant first; a lone surrogate is '?'
+            int encoded;
+            int length;
+            if (c < 0x800) {
+                encoded = (0xC0 | c >> 6) << 8 | 0x80 | c & 0x3F;
+                length = 2;
+            } else if (Character.isHighSurrogate((char) c) && i < chars && Character.isLowSurrogate(name.charAt(i))) {
+                int cp = Character.toCodePoint((char) c, name.charAt(i++));
+                encoded = (0xF0 | cp >> 18) << 24 | (0x80 | cp >> 12 & 0x3F) << 16 | (0x80 | cp >> 6 & 0x3F) << 8 | 0x80 | cp & 0x3F;
+                length = 4;
+            } else if (Character.isSurrogate((char) c)) {
+                encoded = '?';
+                length = 1;
+            } else {
+                encoded = (0xE0 | c >> 12) << 16 | (0x80 | c >> 6 & 0x3F) << 8 | 0x80 | c & 0x3F;
+                length = 3;
+            }
+            if (end - at < length) {
+                return false;
+            }
+            for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+                if (arena.get(at++) != (byte) (encoded >>> shift)) {
+                    return false;
+                }
+            }
+        }
+        return at == end;
+    }
+
+    private String name(int slot) {
+        long ref = rows.getLong(slot * ROW + NAME_AT);
+        byte[] bytes = new byte[(int) ref];
+        names.get((int) (ref >>> 32), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // A new slot holding only the name. Caller holds the write lock.
+    private int insert(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (used == capacity) {
+                growSlots();
+            }
+            slot = used++;
+        }
+        if (nameTop + bytes.length > names.capacity()) {
+            growNames(bytes.length);
+        }
+        names.put(nameTop, bytes);
+        rows.putLong(slot * ROW + NAME_AT, ((long) nameTop << 32) | bytes.length);
+        nameTop += bytes.length;
+        rows.put(slot * ROW + FLAGS_AT, (byte) 0);
+
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        place(table, ((long) name.hashCode() << 32) | (slot + 1));
+        return slot;
+    }
+
+    private static void place(long[] entries, long entry) {
+        int mask = entries.length - 1;
+        int i = spread((int) (entry >>> 32)) & mask;
+        while (entries[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        entries[i] = entry;
+    }
+
+    // Fills the new table before publishing it, for optimistic readers
+    private void rehash(int length) {
+        long[] rehashed = new long[length];
+        for (long entry : table) {
+            if (entry != 0) {
+                place(rehashed, entry);
+            }
+        }
+        table = rehashed;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken
+    private void free(int slot, int hash) {
+        int mask = table.length - 1;
+        int gap = spread(hash) & mask;
+        while ((int) table[gap] != slot + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = spread((int) (table[next] >>> 32)) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+        size--;
+
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        nameGarbage += (int) rows.getLong(slot * ROW + NAME_AT);
+        if (nameGarbage > COMPACT_MIN_GARBAGE && nameGarbage * 2 > nameTop) {
+            compactNames(names.capacity());
+        }
+    }
+
+    private void growSlots() {
+        int newCapacity = capacity * 2;
+        rows = copy(rows, newCapacity * ROW);
+        capacity = newCapacity;
+        account();
+    }
+
+    // Makes room for another name, dropping the bytes of removed products first, and growing by
+    // half if the live names would still fill more than three quarters of it
+    private void growNames(int needed) {
+        long live = nameTop - nameGarbage + needed;
+        long newCapacity = names.capacity();
+        while (live > newCapacity * 3 / 4) {
+            newCapacity += newCapacity / 2;
+        }
+        if (newCapacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Product names exceed 2GB");
+        }
+        compactNames((int) newCapacity);
+    }
+
+    private void compactNames(int newCapacity) {
+        ByteBuffer compacted = allocate(newCapacity).order(ByteOrder.LITTLE_ENDIAN);
+        int top = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (rows.get(slot * ROW + FLAGS_AT) != 0) {
+                long ref = rows.getLong(slot * ROW + NAME_AT);
+                int length = (int) ref;
+                compacted.put(top, names, (int) (ref >>> 32), length);
+                rows.putLong(slot * ROW + NAME_AT, ((long) top << 32) | length);
+                top += length;
+            }
+        }
+        names = compacted;
+        nameTop = top;
+        nameGarbage = 0;
+        account();
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer copy(ByteBuffer old, int bytes) {
+        ByteBuffer grown = allocate(bytes);
+        grown.put(0, old, 0, old.capacity());
+        return grown;
+    }
+
+    private void account() {
+        long total = rows.capacity() + names.capacity();
+        if (offHeapBytes != null) {
+            offHeapBytes.add(total - allocated);
+        }
+        allocated = total;
+    }
+
+    // One view's products as a Map
+    private abstract class Column<V> extends AbstractMap<String, V> {
+        private final int bit;
+
+        Column(int bit) {
+            this.bit = bit;
+        }
+
+        CatalogArena arena() {
+            return CatalogArena.this;
+        }
+
+        abstract V read(int slot);
+
+        abstract void write(int slot, V value);
+
+        // Whether write() can run under the read lock for this value
+        boolean writesInPlace(V value) {
+            return true;
+        }
+
+        @Override
+        public int size() {
+            long stamp = lock.readLock();
+            try {
+                return counts[Integer.numberOfTrailingZeros(bit)];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && get(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            String name = (String) key;
+            long stamp = lock.tryOptimisticRead();
+            try {
+                V value = lookup(name);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Read the rows halfway through a change; retried below
+            }
+            stamp = lock.readLock();
+            try {
+                return lookup(name);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private V lookup(String name) {
+            int slot = find(name);
+            return slot >= 0 && has(slot, bit) ? read(slot) : null;
+        }
+
+        @Override
+        public V put(String name, V value) {
+            Objects.requireNonNull(value);
+            if (writesInPlace(value)) {
+                long stamp = lock.readLock();
+                try {
+                    int slot = find(name);
+                    if (slot >= 0 && has(slot, bit)) {
+                        V old = read(slot);
+                        write(slot, value);
+                        return old;
+                    }
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(name);
+                if (slot < 0) {
+                    slot = insert(name);
+                }
+                V old = null;
+                if (has(slot, bit)) {
+                    old = read(slot);
+                } else {
+                    if (bit == STOCK) {
+                        LONGS.setVolatile(rows, slot * ROW + CELL_AT, 0L);
+                    }
+                    setFlag(slot, bit);
+                }
+                write(slot, value);
+                return old;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public V remove(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            long stamp = lock.writeLock();
+            try {
+                int slot = find((String) key);
+                if (slot < 0 || !has(slot, bit)) {
+                    return null;
+                }
+                V old = read(slot);
+                clearFlag(slot, bit, key.hashCode());
+                return old;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<String> iterator() {
+                    Iterator<Map.Entry<String, V>> entries = new Entries();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public String next() {
+                            return entries.next().getKey();
+                        }
+
+                        @Override
+                        public void remove() {
+                            entries.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Column.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return Column.this.remove(o) != null;
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, V>> iterator() {
+                    return new Entries();
+                }
+
+                @Override
+                public int size() {
+                    return Column.this.size();
+                }
+            };
+        }
+
+        // Walks the slots in order. Like a ConcurrentHashMap iterator it never fails on concurrent
+        // changes; a product added or removed meanwhile may or may not be seen.
+        private class Entries implements Iterator<Map.Entry<String, V>> {
+            private int nextSlot;
+            private Map.Entry<String, V> pending;
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null) {
+                    long stamp = lock.readLock();
+                    try {
+                        while (pending == null && nextSlot < used) {
+                            int slot = nextSlot++;
+                            if (has(slot, bit)) {
+                                pending = new AbstractMap.SimpleImmutableEntry<>(name(slot), read(slot));
+                            }
+                        }
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                return pending != null;
+            }
+
+            @Override
+            public Map.Entry<String, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<String, V> entry = pending;
+                pending = null;
+                last = entry.getKey();
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                Column.this.remove(last);
+                last = null;
+            }
+        }
+    }
+}
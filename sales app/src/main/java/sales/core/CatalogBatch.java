@@ -0,0 +1,92 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Edits to many products staged together and applied as one: one journal record (or one snapshot
+// for a very large batch), so a crash never leaves half a batch behind, and one undo for the lot.
+// Nothing touches the catalog until commit.
+public class CatalogBatch {
+    private static final LatencyHistogram COMMIT_LATENCY = Metrics.histogram("catalog.batch");
+
+    // price -1 and category null leave those alone; stockDelta is added to what is on hand
+    public record Edit(String name, double price, int stockDelta, String category) {}
+
+    private final Map<String, Edit> edits = new LinkedHashMap<>();
+
+    public void setPrice(String name, double price) {
+        Edit edit = edit(name);
+        edits.put(name, new Edit(name, price, edit.stockDelta(), edit.category()));
+    }
+
+    public void restock(String name, int units) {
+        Edit edit = edit(name);
+        edits.put(name, new Edit(name, edit.price(), edit.stockDelta() + units, edit.category()));
+    }
+
+    public void setCategory(String name, String category) {
+        Edit edit = edit(name);
+        edits.put(name, new Edit(name, edit.price(), edit.stockDelta(), category));
+    }
+
+    private Edit edit(String name) {
+        return edits.getOrDefault(name, new Edit(name, -1, 0, null));
+    }
+
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    public int size() {
+        return edits.size();
+    }
+
+    public List<Edit> getEdits() {
+        return new ArrayList<>(edits.values());
+    }
+
+    // Applies every edit to the catalog and queues them as a single mutation. Products deleted since
+    // they were staged are skipped, and stock is never taken below zero. Returns the batch that puts
+    // back what this one changed.
+    public CatalogBatch commit(Map<String, Double> products, InventoryEngine inventory, Map<String, String> categories,
+                               ProductSearchIndex searchIndex, PersistenceService persistence) {
+        long start = System.nanoTime();
+        List<Edit> applied = new ArrayList<>(edits.size());
+        CatalogBatch undo = new CatalogBatch();
+        for (Edit edit : edits.values()) {
+            String name = edit.name();
+            Double oldPrice = products.get(name);
+            if (oldPrice == null) {
+                continue;
+            }
+            double price = -1;
+            if (edit.price() >= 0 && edit.price() != oldPrice) {
+                price = edit.price();
+                products.put(name, price);
+                undo.setPrice(name, oldPrice);
+            }
+            int delta = edit.stockDelta() == 0 ? 0 : inventory.adjust(name, edit.stockDelta());
+            if (delta != 0) {
+                undo.restock(name, -delta);
+            }
+            String category = null;
+            String oldCategory = categories.getOrDefault(name, CatalogTransfer.DEFAULT_CATEGORY);
+            if (edit.category() != null && !edit.category().equals(oldCategory)) {
+                category = edit.category();
+                categories.put(name, category);
+                searchIndex.setCategory(name, category);
+                undo.setCategory(name, oldCategory);
+            }
+            if (price >= 0 || delta != 0 || category != null) {
+                applied.add(new Edit(name, price, delta, category));
+            }
+        }
+        if (!applied.isEmpty()) {
+            persistence.editProducts(applied);
+        }
+        COMMIT_LATENCY.recordSince(start);
+        return undo;
+    }
+}
@@ -0,0 +1,16 @@
+package sales.core;
+
+// One change to one product, as published on CatalogEvents
+//   INSERT    the product was added
+//   DELETE    the product was removed
+//   PRICE     its price changed
+//   STOCK     its on-hand or reserved stock changed
+//   CATEGORY  it moved to another category
+public record CatalogEvent(Type type, String name) {
+    public enum Type { INSERT, DELETE, PRICE, STOCK, CATEGORY }
+
+    // Whether rows have to be added or removed, rather than just repainted
+    public boolean isStructural() {
+        return type == Type.INSERT || type == Type.DELETE;
+    }
+}
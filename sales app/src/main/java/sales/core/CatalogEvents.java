@@ -0,0 +1,47 @@
+package sales.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tells every open view what changed in the catalog. Admin publishes inserts, deletes, price and
+// category changes as it makes them; stock changes arrive from the inventory, from any lane's thread.
+// Listeners are called on the publishing thread, so they should only note the change and deal with
+// it later, as CatalogUpdates does once per frame.
+public class CatalogEvents implements InventoryEngine.Listener {
+    public interface Listener {
+        void catalogChanged(CatalogEvent event);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder published = Metrics.counter("catalog.events");
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(CatalogEvent.Type type, String name) {
+        published.increment();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        CatalogEvent event = new CatalogEvent(type, name);
+        for (Listener listener : listeners) {
+            listener.catalogChanged(event);
+        }
+    }
+
+    @Override
+    public void stockChanged(String name, int available) {
+        publish(CatalogEvent.Type.STOCK, name);
+    }
+
+    // Stock also goes when a product is renamed, so the delete is left to whoever removed the product
+    @Override
+    public void productRemoved(String name) {
+    }
+}
@@ -0,0 +1,296 @@
+package sales.core;
+
+import java.io.*;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class CatalogJournal {
+    private static final int MAGIC = 0x534A524E; // "SJRN"
+    private static final byte OP_PUT = 1;
+    private static final byte OP_PRICE = 2;
+    private static final byte OP_STOCK_DELTA = 3;
+    private static final byte OP_DELETE = 4;
+    private static final byte OP_BARCODE = 5;
+    private static final byte OP_REORDER_LEVEL = 6;
+    private static final byte OP_CATEGORY = 7;
+    private static final byte OP_EDITS = 8;
+    private static final int MAX_RECORD = 1 << 20;
+
+    private final File file;
+    private final int compactThreshold;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(64);
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private final byte[] frameHeader = new byte[8];
+    private FileOutputStream fileOut;
+    private BufferedOutputStream out;
+    private long epoch;
+    private int recordCount;
+
+    public CatalogJournal(File file, int compactThreshold) {
+        this.file = file;
+        this.compactThreshold = compactThreshold;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // Replays every intact record written after the snapshot and leaves the journal open for appends.
+    // A journal older than the snapshot has already been folded into it and is discarded.
+    public int replay(long snapshotEpoch, Map<String, Double> products, Map<String, Integer> inventory,
+                      BarcodeIndex barcodes, Map<String, Integer> reorderLevels,
+                      Map<String, String> categories) throws IOException {
+        epoch = snapshotEpoch;
+        recordCount = 0;
+        long validLength = 0;
+
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readLong() == snapshotEpoch) {
+                    validLength = 12;
+                    byte[] payload = new byte[256];
+                    while (true) {
+                        int length;
+                        int checksum;
+                        try {
+                            length = in.readInt();
+                            checksum = in.readInt();
+                        } catch (EOFException e) {
+                            break;
+                        }
+                        if (length <= 0 || length > MAX_RECORD) {
+                            break;
+                        }
+                        if (payload.length < length) {
+                            payload = new byte[length];
+                        }
+                        try {
+                            in.readFully(payload, 0, length);
+                        } catch (EOFException e) {
+                            break; // torn tail from an interrupted write
+                        }
+                        crc.reset();
+                        crc.update(payload, 0, length);
+                        if ((int) crc.getValue() != checksum) {
+                            break;
+                        }
+                        apply(new DataInputStream(new ByteArrayInputStream(payload, 0, length)), products, inventory, barcodes, reorderLevels,
+                            categories);
+                        validLength += 8 + length;
+                        recordCount++;
+                    }
+                }
+            } catch (EOFException e) {
+                // Header was never completely written
+            }
+        }
+
+        if (validLength == 0) {
+            reset(snapshotEpoch);
+        } else {
+            // Drop anything after the last intact record before appending again
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+            openForAppend();
+        }
+        return recordCount;
+    }
+
+    private void apply(DataInputStream in, Map<String, Double> products, Map<String, Integer> inventory,
+                       BarcodeIndex barcodes, Map<String, Integer> reorderLevels,
+                       Map<String, String> categories) throws IOException {
+        byte op = in.readByte();
+        String name = in.readUTF();
+        switch (op) {
+            case OP_PUT:
+                products.put(name, in.readDouble());
+                inventory.put(name, in.readInt());
+                break;
+            case OP_PRICE:
+                products.put(name, in.readDouble());
+                break;
+            case OP_STOCK_DELTA:
+                int delta = in.readInt();
+                inventory.computeIfPresent(name, (k, stock) -> stock + delta);
+                break;
+            case OP_DELETE:
+                products.remove(name);
+                inventory.remove(name);
+                barcodes.remove(name);
+                reorderLevels.remove(name);
+                categories.remove(name);
+                break;
+            case OP_BARCODE:
+                barcodes.put(name, in.readLong());
+                break;
+            case OP_REORDER_LEVEL:
+                int level = in.readInt();
+                if (level < 0) {
+                    reorderLevels.remove(name);
+                } else {
+                    reorderLevels.put(name, level);
+                }
+                break;
+            case OP_CATEGORY:
+                categories.put(name, in.readUTF());
+                break;
+            case OP_EDITS:
+                // A whole CatalogBatch; price < 0 and a missing category mean unchanged
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String product = in.readUTF();
+                    double price = in.readDouble();
+                    int stockDelta = in.readInt();
+                    String category = in.readBoolean() ? in.readUTF() : null;
+                    if (price >= 0) {
+                        products.put(product, price);
+                    }
+                    inventory.computeIfPresent(product, (k, stock) -> stock + stockDelta);
+                    if (category != null) {
+                        categories.put(product, category);
+                    }
+                }
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + op);
+        }
+    }
+
+    // Starts an empty journal for the given epoch, replacing whatever was there
+    public void reset(long newEpoch) throws IOException {
+        close();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream header = new DataOutputStream(new FileOutputStream(tmp))) {
+            header.writeInt(MAGIC);
+            header.writeLong(newEpoch);
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+        epoch = newEpoch;
+        recordCount = 0;
+        openForAppend();
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file, true);
+        out = new BufferedOutputStream(fileOut, 64 * 1024);
+    }
+
+    public boolean needsCompaction() {
+        return recordCount >= compactThreshold;
+    }
+
+    public void appendPut(String name, double price, int stock) throws IOException {
+        begin(OP_PUT, name);
+        record.writeDouble(price);
+        record.writeInt(stock);
+        commit();
+    }
+
+    public void appendPrice(String name, double price) throws IOException {
+        begin(OP_PRICE, name);
+        record.writeDouble(price);
+        commit();
+    }
+
+    public void appendStockDelta(String name, int delta) throws IOException {
+        begin(OP_STOCK_DELTA, name);
+        record.writeInt(delta);
+        commit();
+    }
+
+    // code 0 removes the product's barcode
+    public void appendBarcode(String name, long code) throws IOException {
+        begin(OP_BARCODE, name);
+        record.writeLong(code);
+        commit();
+    }
+
+    // level -1 goes back to the default reorder level
+    public void appendReorderLevel(String name, int level) throws IOException {
+        begin(OP_REORDER_LEVEL, name);
+        record.writeInt(level);
+        commit();
+    }
+
+    public void appendCategory(String name, String category) throws IOException {
+        begin(OP_CATEGORY, name);
+        record.writeUTF(category);
+        commit();
+    }
+
+    // One record for the whole batch, so replay applies all of it or, after a torn write, none
+    public void appendEdits(List<CatalogBatch.Edit> edits) throws IOException {
+        begin(OP_EDITS, "");
+        record.writeInt(edits.size());
+        for (CatalogBatch.Edit edit : edits) {
+            record.writeUTF(edit.name());
+            record.writeDouble(edit.price());
+            record.writeInt(edit.stockDelta());
+            record.writeBoolean(edit.category() != null);
+            if (edit.category() != null) {
+                record.writeUTF(edit.category());
+            }
+        }
+        commit();
+    }
+
+    public void appendDelete(String name) throws IOException {
+        begin(OP_DELETE, name);
+        commit();
+    }
+
+    private void begin(byte op, String name) throws IOException {
+        if (out == null) {
+            throw new IOException("Journal is not open");
+        }
+        recordBuffer.reset();
+        record.writeByte(op);
+        record.writeUTF(name);
+    }
+
+    // Records are buffered until flush(), so a batch reaches the file in as few writes as possible
+    private void commit() throws IOException {
+        byte[] payload = recordBuffer.toByteArray();
+        if (payload.length > MAX_RECORD) {
+            throw new IOException("Journal record of " + payload.length + " bytes is too large");
+        }
+        crc.reset();
+        crc.update(payload);
+        writeInt(frameHeader, 0, payload.length);
+        writeInt(frameHeader, 4, (int) crc.getValue());
+        out.write(frameHeader);
+        out.write(payload);
+        recordCount++;
+    }
+
+    // Pushes buffered records to disk and waits until the device has them
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+            fileOut.getFD().sync();
+        }
+    }
+
+    private static void writeInt(byte[] buf, int pos, int value) {
+        buf[pos] = (byte) (value >>> 24);
+        buf[pos + 1] = (byte) (value >>> 16);
+        buf[pos + 2] = (byte) (value >>> 8);
+        buf[pos + 3] = (byte) value;
+    }
+
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            fileOut = null;
+        }
+    }
+}
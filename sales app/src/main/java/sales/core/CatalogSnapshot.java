@@ -0,0 +1,320 @@
+package sales.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32C;
+
+// Binary catalog snapshot, read whole into the heap on open. It is not memory-mapped: Windows will
+// not replace or delete a file while a mapping of it is alive, which would fail every compaction
+// until the mapping happened to be collected. Layout (little endian):
+//   header   magic, version, epoch, count, name bytes, body crc, header crc (HEADER_SIZE bytes)
+//   prices   double[count]
+//   barcodes long[count], 0 for none (version 2 on; older versions are still read)
+//   stock    int[count]
+//   reorder  int[count], -1 for the default level (version 3 on)
+//   category int[count] into the category table, -1 for none (version 4 on)
+//   offsets  int[count + 1] into the name bytes
+//   names    UTF-8, sorted so a single product can be found without decoding the rest
+//   categories (version 4 on) int count, int[count + 1] offsets, then the names as UTF-8
+// Opening only checks the header; verify() checksums the body before a full load.
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x54414353; // "SCAT"
+    private static final int VERSION = 4;
+    static final int HEADER_SIZE = 32;
+
+    private final ByteBuffer buffer;
+    private final long epoch;
+    private final int count;
+    private final int bodyChecksum;
+    private final DoubleBuffer prices;
+    private final LongBuffer barcodes;
+    private final IntBuffer stock;
+    private final IntBuffer reorderLevels;
+    private final IntBuffer categoryIds;
+    private final IntBuffer offsets;
+    private final int namesStart;
+    private final String[] categories;
+
+    private CatalogSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version);
+        }
+        if (checksum(buffer, 0, HEADER_SIZE - 4) != buffer.getInt(HEADER_SIZE - 4)) {
+            throw new IOException("Catalog snapshot header is corrupt");
+        }
+        epoch = buffer.getLong(8);
+        count = buffer.getInt(16);
+        int nameBytes = buffer.getInt(20);
+        bodyChecksum = buffer.getInt(24);
+        int barcodeBytes = version == 1 ? 0 : count * 8;
+        int reorderBytes = version < 3 ? 0 : count * 4;
+        int categoryBytes = version < 4 ? 0 : count * 4;
+        int stockStart = HEADER_SIZE + count * 8 + barcodeBytes;
+        int offsetsStart = stockStart + count * 4 + reorderBytes + categoryBytes;
+        namesStart = offsetsStart + (count + 1) * 4;
+        long namesEnd = (long) namesStart + nameBytes;
+        if (count < 0 || nameBytes < 0 || namesEnd > buffer.capacity()
+                || version < 4 && namesEnd != buffer.capacity()) {
+            throw new IOException("Catalog snapshot is truncated");
+        }
+        categories = version < 4 ? new String[0] : readCategories(buffer, (int) namesEnd);
+        prices = buffer.slice(HEADER_SIZE, count * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        barcodes = buffer.slice(HEADER_SIZE + count * 8, barcodeBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        stock = buffer.slice(stockStart, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        reorderLevels = buffer.slice(stockStart + count * 4, reorderBytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        categoryIds = buffer.slice(stockStart + count * 4 + reorderBytes, categoryBytes)
+            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        offsets = buffer.slice(offsetsStart, (count + 1) * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // The category table is small, so it is decoded up front
+    private static String[] readCategories(ByteBuffer buffer, int start) throws IOException {
+        if (start + 4L > buffer.capacity()) {
+            throw new IOException("Catalog snapshot is truncated");
+        }
+        int categoryCount = buffer.getInt(start);
+        long bytesStart = start + 4L + (categoryCount + 1L) * 4;
+        if (categoryCount < 0 || bytesStart > buffer.capacity()
+                || bytesStart + buffer.getInt(start + 4 + categoryCount * 4) != buffer.capacity()) {
+            throw new IOException("Catalog snapshot is truncated");
+        }
+        String[] table = new String[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            int from = buffer.getInt(start + 4 + i * 4);
+            int to = buffer.getInt(start + 8 + i * 4);
+            if (from < 0 || to < from || bytesStart + to > buffer.capacity()) {
+                throw new IOException("Catalog snapshot is corrupt");
+            }
+            byte[] bytes = new byte[to - from];
+            buffer.get((int) bytesStart + from, bytes);
+            table[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return table;
+    }
+
+    public static CatalogSnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large: " + channel.size());
+            }
+            ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+            while (contents.hasRemaining()) {
+                if (channel.read(contents, contents.position()) < 0) {
+                    throw new IOException("Catalog snapshot is truncated");
+                }
+            }
+            return new CatalogSnapshot(contents.clear().order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    public void verify() throws IOException {
+        if (checksum(buffer, HEADER_SIZE, buffer.capacity() - HEADER_SIZE) != bodyChecksum) {
+            throw new IOException("Catalog snapshot is corrupt");
+        }
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String name(int index) {
+        int start = offsets.get(index);
+        byte[] bytes = new byte[offsets.get(index + 1) - start];
+        buffer.get(namesStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public double price(int index) {
+        return prices.get(index);
+    }
+
+    public int stock(int index) {
+        return stock.get(index);
+    }
+
+    public long barcode(int index) {
+        return barcodes.capacity() == 0 ? 0 : barcodes.get(index);
+    }
+
+    // -1 when the product uses the default level
+    public int reorderLevel(int index) {
+        return reorderLevels.capacity() == 0 ? -1 : reorderLevels.get(index);
+    }
+
+    // null when the product has none
+    public String category(int index) {
+        if (categoryIds.capacity() == 0) {
+            return null;
+        }
+        int id = categoryIds.get(index);
+        return id < 0 || id >= categories.length ? null : categories[id];
+    }
+
+    // Binary search over the sorted names; -1 if absent
+    public int indexOf(String name) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = name(mid).compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public void loadInto(Map<String, Double> products, Map<String, Integer> onHand, BarcodeIndex barcodeIndex,
+                         Map<String, Integer> reorderLevelMap, Map<String, String> categoryMap) {
+        byte[] scratch = new byte[256];
+        int start = offsets.get(0);
+        for (int i = 0; i < count; i++) {
+            int end = offsets.get(i + 1);
+            int length = end - start;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(namesStart + start, scratch, 0, length);
+            String name = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            products.put(name, prices.get(i));
+            onHand.put(name, stock.get(i));
+            long code = barcode(i);
+            if (code != 0) {
+                barcodeIndex.put(name, code);
+            }
+            int level = reorderLevel(i);
+            if (level >= 0) {
+                reorderLevelMap.put(name, level);
+            }
+            String category = category(i);
+            if (category != null) {
+                categoryMap.put(name, category);
+            }
+            start = end;
+        }
+    }
+
+    // Products without an inventory entry are written with zero stock
+    public static void write(File file, Map<String, Double> products, Map<String, Integer> inventory,
+                             BarcodeIndex barcodeIndex, Map<String, Integer> reorderLevelMap,
+                             Map<String, String> categoryMap, long epoch) throws IOException {
+        List<String> names = new ArrayList<>(products.keySet());
+        Collections.sort(names);
+        int count = names.size();
+        byte[][] encoded = new byte[count][];
+        long nameBytes = 0;
+        for (int i = 0; i < count; i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            nameBytes += encoded[i].length;
+        }
+        // Categories of products that are still in the catalog, numbered in sorted order
+        TreeSet<String> used = new TreeSet<>();
+        for (String name : names) {
+            String category = categoryMap.get(name);
+            if (category != null) {
+                used.add(category);
+            }
+        }
+        Map<String, Integer> categoryIds = new HashMap<>();
+        byte[][] encodedCategories = new byte[used.size()][];
+        long categoryBytes = 0;
+        for (String category : used) {
+            encodedCategories[categoryIds.size()] = category.getBytes(StandardCharsets.UTF_8);
+            categoryBytes += encodedCategories[categoryIds.size()].length;
+            categoryIds.put(category, categoryIds.size());
+        }
+        long total = HEADER_SIZE + (long) count * 32 + 4 + nameBytes + 4 + (used.size() + 1L) * 4 + categoryBytes;
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for a snapshot: " + total + " bytes");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) total).order(ByteOrder.LITTLE_ENDIAN);
+        out.position(HEADER_SIZE);
+        for (String name : names) {
+            out.putDouble(products.get(name));
+        }
+        for (String name : names) {
+            out.putLong(barcodeIndex.barcodeOf(name));
+        }
+        for (String name : names) {
+            out.putInt(inventory.getOrDefault(name, 0));
+        }
+        for (String name : names) {
+            out.putInt(reorderLevelMap.getOrDefault(name, -1));
+        }
+        for (String name : names) {
+            String category = categoryMap.get(name);
+            out.putInt(category == null ? -1 : categoryIds.get(category));
+        }
+        int offset = 0;
+        for (byte[] name : encoded) {
+            out.putInt(offset);
+            offset += name.length;
+        }
+        out.putInt(offset);
+        for (byte[] name : encoded) {
+            out.put(name);
+        }
+        out.putInt(encodedCategories.length);
+        offset = 0;
+        for (byte[] category : encodedCategories) {
+            out.putInt(offset);
+            offset += category.length;
+        }
+        out.putInt(offset);
+        for (byte[] category : encodedCategories) {
+            out.put(category);
+        }
+
+        out.putInt(0, MAGIC);
+        out.putInt(4, VERSION);
+        out.putLong(8, epoch);
+        out.putInt(16, count);
+        out.putInt(20, (int) nameBytes);
+        out.putInt(24, checksum(out, HEADER_SIZE, (int) total - HEADER_SIZE));
+        out.putInt(HEADER_SIZE - 4, checksum(out, 0, HEADER_SIZE - 4));
+
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            FileChannel channel = fos.getChannel();
+            out.rewind();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,91 @@
+package sales.core;
+
+import java.io.*;
+import java.util.Map;
+
+// Catalog snapshot storage. The current format is a single catalog.snap (see CatalogSnapshot);
+// products.dat/inventory.dat from older versions are migrated on first load and kept as .bak.
+public class CatalogStore implements PersistenceService.SnapshotWriter {
+    private final File snapshotFile;
+    private final File productsFile;
+    private final File inventoryFile;
+
+    public CatalogStore(File dataDirectory) {
+        this.snapshotFile = new File(dataDirectory, "catalog.snap");
+        this.productsFile = new File(dataDirectory, "products.dat");
+        this.inventoryFile = new File(dataDirectory, "inventory.dat");
+    }
+
+    // Fills the maps and returns the journal epoch the snapshot covers (0 when there is none yet).
+    // A damaged snapshot is reported rather than treated as an empty catalog.
+    public long load(Map<String, Double> products, Map<String, Integer> onHand, BarcodeIndex barcodes,
+                     Map<String, Integer> reorderLevels, Map<String, String> categories) throws IOException {
+        if (!snapshotFile.exists()) {
+            return migrateLegacy(products, onHand, barcodes, reorderLevels, categories);
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+        snapshot.verify();
+        snapshot.loadInto(products, onHand, barcodes, reorderLevels, categories);
+        return snapshot.getEpoch();
+    }
+
+    private long migrateLegacy(Map<String, Double> products, Map<String, Integer> onHand, BarcodeIndex barcodes,
+                               Map<String, Integer> reorderLevels, Map<String, String> categories) throws IOException {
+        if (!productsFile.exists() && !inventoryFile.exists()) {
+            return 0;
+        }
+        loadLegacyProducts(products);
+        long epoch = loadLegacyInventory(onHand);
+        write(products, onHand, barcodes, reorderLevels, categories, epoch);
+        for (File legacy : new File[] {productsFile, inventoryFile}) {
+            if (legacy.exists()) {
+                replaceFile(legacy, new File(legacy.getPath() + ".bak"));
+            }
+        }
+        System.out.println("Migrated " + products.size() + " products to " + snapshotFile);
+        return epoch;
+    }
+
+    private void loadLegacyProducts(Map<String, Double> products) {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(productsFile)))) {
+            @SuppressWarnings("unchecked")
+            Map<String, Double> loadedProducts = (Map<String, Double>) ois.readObject();
+            products.putAll(loadedProducts);
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("No existing products file found. Will create new one.");
+        }
+    }
+
+    // The journal epoch follows the map (absent in files written before journaling)
+    private long loadLegacyInventory(Map<String, Integer> onHand) {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(inventoryFile)))) {
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> loadedInventory = (Map<String, Integer>) ois.readObject();
+            onHand.putAll(loadedInventory);
+            try {
+                return ois.readLong();
+            } catch (EOFException e) {
+                return 0;
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("No existing inventory file found. Will create new one.");
+            return 0;
+        }
+    }
+
+    // Writes a full snapshot for the given journal epoch. Runs on the persistence writer thread
+    // when the journal needs compacting and at shutdown.
+    @Override
+    public void write(Map<String, Double> products, Map<String, Integer> inventory, BarcodeIndex barcodes,
+                      Map<String, Integer> reorderLevels, Map<String, String> categories, long epoch) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        CatalogSnapshot.write(tmp, products, inventory, barcodes, reorderLevels, categories, epoch);
+        replaceFile(tmp, snapshotFile);
+    }
+
+    private static void replaceFile(File tmp, File target) throws IOException {
+        if (!tmp.renameTo(target) && !(target.delete() && tmp.renameTo(target))) {
+            throw new IOException("Could not replace " + target);
+        }
+    }
+}
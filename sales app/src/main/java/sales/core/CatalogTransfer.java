@@ -0,0 +1,265 @@
+package sales.core;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+
+// Bulk catalog files: one product per line as name, price, stock[, category[, barcode]], comma
+// separated (.csv) or tab separated (.tsv). A header line starting with "name" is skipped. Quoted
+// CSV fields may contain commas and doubled quotes but not line breaks. An empty barcode leaves the
+// product's current one alone.
+public final class CatalogTransfer {
+    public static final String DEFAULT_CATEGORY = "Other";
+    private static final int CHUNK_LINES = 8192;
+    private static final int MAX_ERRORS = 100;
+    private static final int IN_FLIGHT_CHUNKS = Runtime.getRuntime().availableProcessors() * 2;
+
+    // rows is empty whenever errors is not: an import is applied whole or not at all
+    public record ImportResult(List<Product> rows, List<String> errors, long lines) {}
+
+    private record Chunk(List<Product> rows, List<String> errors) {}
+
+    private CatalogTransfer() {
+    }
+
+    // Reads the file in chunks that are validated in parallel, with only a few chunks of raw
+    // lines held at a time. progress receives 0-100 as the file is read.
+    public static ImportResult read(File file, IntConsumer progress) throws IOException {
+        long size = Math.max(1, file.length());
+        List<Product> rows = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        ArrayDeque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        long lineNumber = 0;
+
+        try (CountingInputStream counter = new CountingInputStream(new FileInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counter, StandardCharsets.UTF_8))) {
+            char delimiter = file.getName().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+            String line = reader.readLine();
+            if (line != null && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line != null && split(line, delimiter).get(0).trim().equalsIgnoreCase("name")) {
+                lineNumber++;
+                line = reader.readLine();
+            }
+
+            int lastPercent = -1;
+            while (line != null) {
+                String[] lines = new String[CHUNK_LINES];
+                int count = 0;
+                long firstLine = lineNumber + 1;
+                while (line != null && count < CHUNK_LINES) {
+                    lines[count++] = line;
+                    lineNumber++;
+                    line = reader.readLine();
+                }
+                int chunkSize = count;
+                inFlight.add(CompletableFuture.supplyAsync(() -> parse(lines, chunkSize, firstLine, delimiter)));
+                if (inFlight.size() >= IN_FLIGHT_CHUNKS) {
+                    collect(inFlight.poll(), rows, errors);
+                }
+
+                int percent = (int) (counter.count * 100 / size);
+                if (percent != lastPercent) {
+                    progress.accept(Math.min(percent, 100));
+                    lastPercent = percent;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                collect(inFlight.poll(), rows, errors);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            return new ImportResult(Collections.emptyList(), errors, lineNumber);
+        }
+        return new ImportResult(rows, errors, lineNumber);
+    }
+
+    private static void collect(CompletableFuture<Chunk> future, List<Product> rows, List<String> errors) {
+        Chunk chunk = future.join();
+        if (errors.isEmpty()) {
+            rows.addAll(chunk.rows());
+        }
+        for (String error : chunk.errors()) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+        // Once anything is wrong the rows are never applied, so stop holding on to them
+        if (!errors.isEmpty()) {
+            rows.clear();
+        }
+    }
+
+    private static Chunk parse(String[] lines, int count, long firstLine, char delimiter) {
+        List<Product> rows = new ArrayList<>(count);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < count && errors.size() < MAX_ERRORS; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            try {
+                rows.add(parseRow(split(lines[i], delimiter)));
+            } catch (IllegalArgumentException e) {
+                errors.add("Line " + (firstLine + i) + ": " + e.getMessage());
+            }
+        }
+        return new Chunk(rows, errors);
+    }
+
+    private static Product parseRow(List<String> fields) {
+        if (fields.size() < 3 || fields.size() > 5) {
+            throw new IllegalArgumentException("expected name, price, stock and an optional category and barcode");
+        }
+        String name = fields.get(0).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("missing product name");
+        }
+        double price;
+        int stock;
+        try {
+            price = Double.parseDouble(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            price = Double.NaN;
+        }
+        if (!(price >= 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("invalid price '" + fields.get(1) + "'");
+        }
+        try {
+            stock = Integer.parseInt(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+            stock = -1;
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("invalid stock '" + fields.get(2) + "'");
+        }
+        String category = fields.size() > 3 && !fields.get(3).isBlank() ? fields.get(3).trim() : DEFAULT_CATEGORY;
+        long barcode = 0;
+        if (fields.size() > 4 && !fields.get(4).isBlank()) {
+            barcode = BarcodeIndex.parse(fields.get(4));
+            if (barcode == 0) {
+                throw new IllegalArgumentException("invalid barcode '" + fields.get(4) + "'");
+            }
+        }
+        return new Product(name, category, price, stock, barcode);
+    }
+
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Streams the catalog out in the format read() accepts. categories and barcodes must not change
+    // while this runs, so callers off the EDT pass copies.
+    public static long write(File file, Map<String, Double> products, InventoryEngine inventory,
+                             Map<String, String> categories, Map<String, Long> barcodes) throws IOException {
+        char delimiter = file.getName().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        long written = 0;
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write(String.join(String.valueOf(delimiter), "name", "price", "stock", "category", "barcode"));
+            writer.newLine();
+            for (Map.Entry<String, Double> product : products.entrySet()) {
+                String name = product.getKey();
+                writer.write(quote(name, delimiter));
+                writer.write(delimiter);
+                writer.write(BigDecimal.valueOf(product.getValue()).toPlainString());
+                writer.write(delimiter);
+                writer.write(Integer.toString(inventory.getOnHand(name)));
+                writer.write(delimiter);
+                writer.write(quote(categories.getOrDefault(name, DEFAULT_CATEGORY), delimiter));
+                writer.write(delimiter);
+                writer.write(BarcodeIndex.format(barcodes.getOrDefault(name, 0L)));
+                writer.newLine();
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // Low products as name, available, reorder level and shortfall, most short first
+    public static long writeReorderList(File file, List<ReorderQueue.Entry> entries) throws IOException {
+        char delimiter = file.getName().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write(String.join(String.valueOf(delimiter), "name", "available", "reorder_level", "shortfall"));
+            writer.newLine();
+            for (ReorderQueue.Entry entry : entries) {
+                writer.write(quote(entry.name(), delimiter));
+                writer.write(delimiter);
+                writer.write(Integer.toString(entry.available()));
+                writer.write(delimiter);
+                writer.write(Integer.toString(entry.reorderLevel()));
+                writer.write(delimiter);
+                writer.write(Integer.toString(entry.shortfall()));
+                writer.newLine();
+            }
+        }
+        return entries.size();
+    }
+
+    private static String quote(String field, char delimiter) {
+        if (field.indexOf(delimiter) < 0 && field.indexOf('"') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package sales.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Cart, stock and checkout logic shared by every terminal. The Swing Cashier is one client;
+// headless lanes run through runLane(), each on its own virtual thread where the JDK has them.
+public class CheckoutService {
+    private final Map<String, Double> products;
+    // The arena behind products when there is one, read without boxing
+    private final CatalogArena catalog;
+    private final InventoryEngine inventory;
+    private final PricingEngine pricing;
+    private final PersistenceService persistence;
+    private final SalesLedger ledger;
+    private final ExecutorService lanes = newLaneExecutor();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder itemsSold = new LongAdder();
+    private final LongAdder totalCheckouts = Metrics.counter("checkout.count");
+    private final LongAdder totalItemsSold = Metrics.counter("checkout.items");
+    private final LongAdder failedCheckouts = Metrics.counter("checkout.failed");
+
+    public CheckoutService(Map<String, Double> products, InventoryEngine inventory,
+                           PersistenceService persistence, SalesLedger ledger) {
+        this(products, inventory, new PricingEngine(List.of(), Map.of()), persistence, ledger);
+    }
+
+    public CheckoutService(Map<String, Double> products, InventoryEngine inventory, PricingEngine pricing,
+                           PersistenceService persistence, SalesLedger ledger) {
+        this.products = products;
+        this.catalog = CatalogArena.ofPrices(products);
+        this.inventory = inventory;
+        this.pricing = pricing;
+        this.persistence = persistence;
+        this.ledger = ledger;
+    }
+
+    public InventoryEngine getInventory() {
+        return inventory;
+    }
+
+    public PricingEngine getPricing() {
+        return pricing;
+    }
+
+    public SalesLedger getSalesLedger() {
+        return ledger;
+    }
+
+    public long getCheckoutCount() {
+        return checkouts.sum();
+    }
+
+    public long getItemsSold() {
+        return itemsSold.sum();
+    }
+
+    // The product's price in cents, or CatalogArena.MISSING
+    long priceCents(String name) {
+        if (catalog != null) {
+            return catalog.priceCents(name);
+        }
+        Double price = products.get(name);
+        return price == null ? CatalogArena.MISSING : Money.toCents(price);
+    }
+
+    public CheckoutSession openSession(String laneId) {
+        return new CheckoutSession(this, laneId);
+    }
+
+    // Runs a lane's work against a fresh session. Whatever is left in its cart afterwards is released.
+    public Future<?> runLane(String laneId, Consumer<CheckoutSession> lane) {
+        return lanes.submit(() -> {
+            CheckoutSession session = openSession(laneId);
+            try {
+                lane.accept(session);
+            } finally {
+                session.clear();
+            }
+        });
+    }
+
+    // Records a finished sale, then commits its reserved stock and queues the matching stock decrements.
+    // If the sale cannot be recorded nothing is committed and the cart stays as it was.
+    void complete(Receipt receipt, LatencyHistogram persistLatency) {
+        long start = System.nanoTime();
+        try {
+            ledger.append(receipt);
+        } catch (IOException e) {
+            failedCheckouts.increment();
+            throw new UncheckedIOException("Could not record sale", e);
+        }
+        persistLatency.recordSince(start);
+        for (CartLine sold : receipt.lines()) {
+            // Journal what came off hand, so disk and memory agree
+            int taken = inventory.commit(sold.name(), sold.quantity());
+            if (taken != 0) {
+                persistence.adjustStock(sold.name(), -taken);
+            }
+        }
+        checkouts.increment();
+        itemsSold.add(receipt.itemCount());
+        totalCheckouts.increment();
+        totalItemsSold.add(receipt.itemCount());
+    }
+
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        lanes.shutdown();
+        lanes.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Virtual threads need Java 21; on older runtimes lanes fall back to a cached platform pool
+    private static ExecutorService newLaneExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// One customer's cart on one lane. A session is only ever used by the thread running its lane;
+// everything it shares with other lanes goes through the CheckoutService. Promotions are applied as
+// lines change: only the touched line is re-priced unless the pricing plan itself has changed.
+public class CheckoutSession {
+    private final CheckoutService service;
+    private final String laneId;
+    private final Cart cart = new Cart();
+    private final LatencyHistogram repriceLatency = Metrics.histogram("pricing.reprice");
+    private PricingEngine.Plan pricedWith;
+    private int fullReprices;
+    private final LatencyHistogram checkoutLatency;
+    private final LatencyHistogram persistLatency;
+
+    CheckoutSession(CheckoutService service, String laneId) {
+        this.service = service;
+        this.laneId = laneId;
+        this.checkoutLatency = Metrics.histogram("checkout." + laneId);
+        this.persistLatency = Metrics.histogram("checkout.persist." + laneId);
+    }
+
+    public String getLaneId() {
+        return laneId;
+    }
+
+    public int getLineCount() {
+        return cart.size();
+    }
+
+    public CartLine getLine(int lineIndex) {
+        return cart.line(lineIndex);
+    }
+
+    public long getTotalCents() {
+        return cart.totalCents();
+    }
+
+    public long getSavingsCents() {
+        return cart.savingsCents();
+    }
+
+    public boolean isEmpty() {
+        return cart.isEmpty();
+    }
+
+    // Counts the times every line was re-priced at once, so views know to redraw the whole cart
+    public int getFullReprices() {
+        return fullReprices;
+    }
+
+    // Reserves the stock and adds it to the cart. Returns the index of the line it merged into or
+    // was appended as, or -1 if the product is unknown or short.
+    public int add(String name, int quantity) {
+        long price = service.priceCents(name);
+        if (price == CatalogArena.MISSING || !service.getInventory().reserve(name, quantity)) {
+            return -1;
+        }
+        int line = cart.add(name, quantity, price);
+        reprice(line);
+        return line;
+    }
+
+    // Applies the best live promotion to the line, or to every line when promotions were edited or
+    // one started or ended since the cart was last priced
+    private void reprice(int line) {
+        long start = System.nanoTime();
+        PricingEngine.Plan plan = service.getPricing().plan();
+        if (plan != pricedWith) {
+            pricedWith = plan;
+            fullReprices++;
+            for (int i = 0; i < cart.size(); i++) {
+                applyBest(plan, i);
+            }
+        } else if (line >= 0) {
+            applyBest(plan, line);
+        }
+        repriceLatency.recordSince(start);
+    }
+
+    private void applyBest(PricingEngine.Plan plan, int line) {
+        Promotion best = plan.best(cart.name(line), cart.quantity(line), cart.unitCents(line));
+        cart.setDiscount(line, best == null ? 0 : best.discountCents(cart.quantity(line), cart.unitCents(line)), best);
+    }
+
+    // Removes one cart line and returns its stock to the shelf
+    public CartLine remove(int lineIndex) {
+        CartLine line = cart.line(lineIndex);
+        cart.remove(lineIndex);
+        service.getInventory().release(line.name(), line.quantity());
+        return line;
+    }
+
+    // Empties the cart and returns the names of the products that went back on the shelf
+    public List<String> clear() {
+        List<String> released = new ArrayList<>(cart.size());
+        for (int i = 0; i < cart.size(); i++) {
+            service.getInventory().release(cart.name(i), cart.quantity(i));
+            released.add(cart.name(i));
+        }
+        cart.clear();
+        return released;
+    }
+
+    // Sells everything in the cart. Returns null if the cart is empty.
+    // Throws UncheckedIOException, leaving the cart intact, if the sale cannot be recorded.
+    public Receipt checkout() {
+        if (cart.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        MetricEvents.Checkout event = new MetricEvents.Checkout();
+        event.begin();
+        // Lines keep the unit prices they were added at; only the promotions are re-checked, so one
+        // that started or ended while the cart was open is applied as of now
+        reprice(-1);
+        Receipt receipt = new Receipt(laneId, new Date(), cart.lines(), cart.totalCents());
+        service.complete(receipt, persistLatency);
+        cart.clear();
+        checkoutLatency.recordSince(start);
+        if (event.shouldCommit()) {
+            event.lane = laneId;
+            event.lines = receipt.lines().size();
+            event.items = receipt.itemCount();
+            event.totalCents = receipt.totalCents();
+            event.commit();
+        }
+        return receipt;
+    }
+}
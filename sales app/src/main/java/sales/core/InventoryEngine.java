@@ -0,0 +1,166 @@
+package sales.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Stock levels shared by every lane. Each product's on-hand count and the quantity reserved in open
+// carts live together in one packed long in the catalog arena, so reserve/release/commit are single
+// compare-and-set loops and lanes only contend when they sell the same product.
+public class InventoryEngine {
+    public interface Listener {
+        // Called on the changing thread after every stock change, with what is left to sell
+        void stockChanged(String name, int available);
+
+        void productRemoved(String name);
+    }
+
+    // On hand never drops below what carts have reserved, so every reservation can be committed
+    private static final CatalogArena.CellUpdate SET = (cell, onHand) -> pack(Math.max(reserved(cell), onHand), reserved(cell));
+    private static final CatalogArena.CellUpdate ADJUST = (cell, delta) -> pack(adjusted(cell, delta), reserved(cell));
+    private static final CatalogArena.CellUpdate RESERVE = (cell, quantity) ->
+        onHand(cell) - reserved(cell) < quantity ? CatalogArena.MISSING : pack(onHand(cell), reserved(cell) + quantity);
+    private static final CatalogArena.CellUpdate RELEASE = (cell, quantity) -> pack(onHand(cell), Math.max(0, reserved(cell) - quantity));
+    private static final CatalogArena.CellUpdate COMMIT = (cell, quantity) ->
+        pack(Math.max(0, onHand(cell) - quantity), Math.max(0, reserved(cell) - quantity));
+
+    private final CatalogArena catalog;
+    private final Map<String, Integer> cells;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public InventoryEngine(Map<String, Integer> onHand) {
+        this(new CatalogArena(onHand.size()));
+        onHand.forEach(this::set);
+    }
+
+    // Shares the stock cells already loaded into the catalog
+    public InventoryEngine(CatalogArena catalog) {
+        this.catalog = catalog;
+        this.cells = catalog.stock();
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void changed(String name, long cell) {
+        for (Listener listener : listeners) {
+            listener.stockChanged(name, onHand(cell) - reserved(cell));
+        }
+    }
+
+    // A cut stops at the reserved count, or where on hand already is if that is lower
+    private static int adjusted(long cell, int delta) {
+        int onHand = onHand(cell);
+        if (delta >= 0) {
+            return onHand + delta;
+        }
+        return Math.max(Math.min(onHand, reserved(cell)), onHand + delta);
+    }
+
+    private static int onHand(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    private static int reserved(long cell) {
+        return (int) cell;
+    }
+
+    public boolean contains(String name) {
+        return cells.containsKey(name);
+    }
+
+    public Set<String> names() {
+        return cells.keySet();
+    }
+
+    // Stock that can still be put into a cart
+    public int getAvailable(String name) {
+        long cell = catalog.getCell(name);
+        return cell == CatalogArena.MISSING ? 0 : onHand(cell) - reserved(cell);
+    }
+
+    // Stock physically in the store, including units sitting in open carts
+    public int getOnHand(String name) {
+        long cell = catalog.getCell(name);
+        return cell == CatalogArena.MISSING ? 0 : onHand(cell);
+    }
+
+    public int getReserved(String name) {
+        long cell = catalog.getCell(name);
+        return cell == CatalogArena.MISSING ? 0 : reserved(cell);
+    }
+
+    // Sets the on-hand count, keeping any open reservations and never going below them
+    public void set(String name, int onHand) {
+        long current = catalog.updateCell(name, SET, onHand, true);
+        changed(name, SET.apply(current, onHand));
+    }
+
+    // Adds delta to the on-hand count, e.g. for a delivery, without taking it below the units held
+    // in carts. Returns the change actually made.
+    public int adjust(String name, int delta) {
+        long current = catalog.updateCell(name, ADJUST, delta, false);
+        if (current == CatalogArena.MISSING) {
+            return 0;
+        }
+        long next = ADJUST.apply(current, delta);
+        changed(name, next);
+        return onHand(next) - onHand(current);
+    }
+
+    public void remove(String name) {
+        cells.remove(name);
+        for (Listener listener : listeners) {
+            listener.productRemoved(name);
+        }
+    }
+
+    // Holds quantity units for a cart. Fails without side effects if not enough are available.
+    public boolean reserve(String name, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        long current = catalog.updateCell(name, RESERVE, quantity, false);
+        if (current == CatalogArena.MISSING) {
+            return false;
+        }
+        changed(name, RESERVE.apply(current, quantity));
+        return true;
+    }
+
+    // Returns reserved units to the shelf, e.g. when a line is removed from the cart
+    public void release(String name, int quantity) {
+        long current = catalog.updateCell(name, RELEASE, quantity, false);
+        if (current != CatalogArena.MISSING) {
+            changed(name, RELEASE.apply(current, quantity));
+        }
+    }
+
+    // Turns reserved units into a sale, taking them off hand. Returns the units actually taken,
+    // which is all of them unless on hand was somehow short; stock never goes negative.
+    public int commit(String name, int quantity) {
+        long current = catalog.updateCell(name, COMMIT, quantity, false);
+        if (current == CatalogArena.MISSING) {
+            return 0;
+        }
+        long next = COMMIT.apply(current, quantity);
+        changed(name, next);
+        return onHand(current) - onHand(next);
+    }
+
+    // On-hand counts for persistence
+    public Map<String, Integer> snapshot() {
+        return new HashMap<>(cells);
+    }
+}
@@ -0,0 +1,61 @@
+package sales.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Flight Recorder events for the same hot paths as Metrics. They cost next to nothing unless a
+// recording is running, e.g. java -XX:StartFlightRecording=filename=sales.jfr -jar ...
+public final class MetricEvents {
+    private MetricEvents() {
+    }
+
+    @Name("sales.Checkout")
+    @Label("Checkout")
+    @Category({"Sales", "Checkout"})
+    public static class Checkout extends Event {
+        @Label("Lane")
+        public String lane;
+        @Label("Lines")
+        public int lines;
+        @Label("Items")
+        public int items;
+        @Label("Total (cents)")
+        public long totalCents;
+    }
+
+    @Name("sales.Search")
+    @Label("Product Search")
+    @Category({"Sales", "Search"})
+    public static class Search extends Event {
+        @Label("Query Length")
+        public int queryLength;
+        @Label("Results")
+        public int results;
+        @Label("Cancelled")
+        public boolean cancelled;
+    }
+
+    @Name("sales.PersistFlush")
+    @Label("Catalog Persist")
+    @Category({"Sales", "Persistence"})
+    public static class PersistFlush extends Event {
+        @Label("Mutations")
+        public int mutations;
+        @Label("Snapshot")
+        public boolean snapshot;
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("sales.CatalogLoad")
+    @Label("Catalog Load")
+    @Category({"Sales", "Persistence"})
+    public static class CatalogLoad extends Event {
+        @Label("Products")
+        public int products;
+        @Label("Journal Epoch")
+        public long epoch;
+    }
+}
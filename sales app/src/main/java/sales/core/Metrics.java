@@ -0,0 +1,115 @@
+package sales.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide latency histograms and counters for the hot paths. Names are dotted, with the lane
+// last where there is one, e.g. "checkout.lane-1". Recording never blocks or allocates once a
+// histogram exists, so callers look them up once and keep the reference.
+public final class Metrics {
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final long STARTED = System.currentTimeMillis();
+    private static ScheduledExecutorService reporter;
+
+    private Metrics() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public static String formatText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Uptime: %d s%n%n", (System.currentTimeMillis() - STARTED) / 1000));
+        text.append(String.format("%-32s %9s %10s %10s %10s %10s %10s%n",
+            "Latency (ms)", "count", "mean", "p50", "p99", "p99.9", "max"));
+        for (LatencyHistogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            text.append(String.format("%-32s %9d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                histogram.getName(), histogram.getCount(), millis(histogram.getMean()),
+                millis(histogram.getPercentile(50)), millis(histogram.getPercentile(99)),
+                millis(histogram.getPercentile(99.9)), millis(histogram.getMax())));
+        }
+        text.append(String.format("%n%-32s %9s%n", "Counter", "value"));
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+            text.append(String.format("%-32s %9d%n", counter.getKey(), counter.getValue().sum()));
+        }
+        return text.toString();
+    }
+
+    public static String formatJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"time\": \"").append(Instant.now()).append("\",\n  \"histograms\": {");
+        String separator = "\n";
+        for (LatencyHistogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            json.append(separator).append("    \"").append(histogram.getName()).append("\": {")
+                .append("\"count\": ").append(histogram.getCount())
+                .append(", \"meanNanos\": ").append(histogram.getMean())
+                .append(", \"p50Nanos\": ").append(histogram.getPercentile(50))
+                .append(", \"p99Nanos\": ").append(histogram.getPercentile(99))
+                .append(", \"p999Nanos\": ").append(histogram.getPercentile(99.9))
+                .append(", \"maxNanos\": ").append(histogram.getMax()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+            json.append(separator).append("    \"").append(counter.getKey()).append("\": ").append(counter.getValue().sum());
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    // Rewrites metrics.txt and metrics.json in the directory every period, and once more at exit
+    public static synchronized void startReporter(File directory, long periodSeconds) {
+        if (reporter != null || periodSeconds <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable dump = () -> {
+            try {
+                write(new File(directory, "metrics.txt"), formatText());
+                write(new File(directory, "metrics.json"), formatJson());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        };
+        reporter.scheduleAtFixedRate(dump, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(dump, "metrics-final-dump"));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+        if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,28 @@
+package sales.core;
+
+// Money is carried as integer cents from the cart onwards; catalog prices are still doubles
+public final class Money {
+    private Money() {
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(12), cents).toString();
+    }
+
+    // Same text as format() without the intermediate String, for rendering receipts in bulk
+    public static StringBuilder appendTo(StringBuilder text, long cents) {
+        if (cents < 0) {
+            text.append('-');
+        }
+        long fraction = Math.abs(cents % 100);
+        text.append(Math.abs(cents / 100)).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+}
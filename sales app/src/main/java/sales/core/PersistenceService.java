@@ -0,0 +1,405 @@
+package sales.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Journals catalog mutations on a background thread so the Swing EDT never waits on the disk.
+// Mutations queued while a flush is running are written together by the next one.
+public class PersistenceService {
+    public static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    private static final long COALESCE_MILLIS = 20;
+    // Imports and batch edits bigger than this go straight into a snapshot rather than through the journal
+    private static final int JOURNALED_BATCH_ROWS = 1000;
+
+    public interface SnapshotWriter {
+        void write(Map<String, Double> products, Map<String, Integer> inventory, BarcodeIndex barcodes,
+                   Map<String, Integer> reorderLevels, Map<String, String> categories, long epoch) throws IOException;
+    }
+
+    public interface Listener {
+        // Called on the thread that queued a mutation or on the writer thread. error is null unless
+        // the last flush failed.
+        void persistenceChanged(int pending, String error);
+    }
+
+    public interface StockListener {
+        // Called on the writer thread after each flush with the on-hand stock of every product whose
+        // stock changed in it, 0 for deleted products
+        void stockChanged(Map<String, Integer> onHand);
+    }
+
+    private enum Op { PUT, PUT_ALL, EDIT_ALL, PRICE, STOCK_DELTA, BARCODE, REORDER_LEVEL, CATEGORY, DELETE, SHUTDOWN }
+
+    // queuedAt is the System.nanoTime() the mutation was queued, for measuring how far disk lags behind
+    private record Mutation(Op op, String name, double price, int amount, long barcode, String category,
+                            List<Product> batch, List<CatalogBatch.Edit> edits, long queuedAt) {
+        Mutation(Op op, String name, double price, int amount, long barcode, String category,
+                 List<Product> batch, List<CatalogBatch.Edit> edits) {
+            this(op, name, price, amount, barcode, category, batch, edits, System.nanoTime());
+        }
+
+        Mutation(Op op, String name, double price, int amount) {
+            this(op, name, price, amount, 0, null, null, null);
+        }
+    }
+
+    private final CatalogJournal journal;
+    private final SnapshotWriter snapshotWriter;
+    private final LinkedBlockingQueue<Mutation> queue = new LinkedBlockingQueue<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<StockListener> stockListeners = new CopyOnWriteArrayList<>();
+    private final Thread writer;
+
+    // The writer's own copy of the catalog, so snapshots never read maps the EDT is changing. Prices,
+    // stock and categories sit in an arena of their own to keep a large catalog off the heap.
+    private final CatalogArena shadow;
+    private final Map<String, Double> products;
+    private final Map<String, Integer> inventory;
+    private final BarcodeIndex barcodes;
+    private final Map<String, Integer> reorderLevels;
+    private final Map<String, String> categories;
+    private boolean snapshotNeeded;
+
+    private final LatencyHistogram journalLatency = Metrics.histogram("persist.journal");
+    private final LatencyHistogram snapshotLatency = Metrics.histogram("persist.snapshot");
+    // From queueing a mutation until it is on disk
+    private final LatencyHistogram lag = Metrics.histogram("persist.lag");
+    private final LongAdder batches = Metrics.counter("persist.batches");
+    private final LongAdder mutations = Metrics.counter("persist.mutations");
+    private final LongAdder failures = Metrics.counter("persist.failures");
+
+    public PersistenceService(CatalogJournal journal, Map<String, Double> products,
+                              Map<String, Integer> inventory, BarcodeIndex barcodes,
+                              Map<String, Integer> reorderLevels, Map<String, String> categories,
+                              SnapshotWriter snapshotWriter) {
+        this.journal = journal;
+        this.snapshotWriter = snapshotWriter;
+        this.shadow = new CatalogArena(products.size(), "persist.shadow.bytes");
+        this.products = shadow.prices();
+        this.inventory = shadow.stock();
+        this.categories = shadow.categories();
+        this.products.putAll(products);
+        this.inventory.putAll(inventory);
+        this.categories.putAll(categories);
+        this.barcodes = new BarcodeIndex(barcodes.snapshot());
+        this.reorderLevels = new HashMap<>(reorderLevels);
+        this.writer = new Thread(this::run, "catalog-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addStockListener(StockListener listener) {
+        stockListeners.add(listener);
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    public void putProduct(String name, double price, int stock) {
+        submit(new Mutation(Op.PUT, name, price, stock));
+    }
+
+    // Queues a whole import as one mutation: one listener update and one flush however many rows
+    public void putProducts(List<Product> batch) {
+        submit(new Mutation(Op.PUT_ALL, null, 0, 0, 0, null, new ArrayList<>(batch), null));
+    }
+
+    // Queues a committed CatalogBatch as one mutation, journaled as a single record so that it is
+    // replayed whole or not at all
+    public void editProducts(List<CatalogBatch.Edit> edits) {
+        submit(new Mutation(Op.EDIT_ALL, null, 0, 0, 0, null, null, new ArrayList<>(edits)));
+    }
+
+    public void setPrice(String name, double price) {
+        submit(new Mutation(Op.PRICE, name, price, 0));
+    }
+
+    public void adjustStock(String name, int delta) {
+        submit(new Mutation(Op.STOCK_DELTA, name, 0, delta));
+    }
+
+    // code 0 removes the product's barcode
+    public void setBarcode(String name, long code) {
+        submit(new Mutation(Op.BARCODE, name, 0, 0, code, null, null, null));
+    }
+
+    // level -1 goes back to the default reorder level
+    public void setReorderLevel(String name, int level) {
+        submit(new Mutation(Op.REORDER_LEVEL, name, 0, level));
+    }
+
+    public void setCategory(String name, String category) {
+        submit(new Mutation(Op.CATEGORY, name, 0, 0, 0, category, null, null));
+    }
+
+    public void deleteProduct(String name) {
+        submit(new Mutation(Op.DELETE, name, 0, 0));
+    }
+
+    private void submit(Mutation mutation) {
+        queue.add(mutation);
+        notifyListeners(null);
+    }
+
+    // Flushes everything queued, writes a snapshot and stops the writer.
+    // Returns false if that did not finish within the timeout.
+    public boolean shutdown(long timeoutMillis) {
+        queue.add(new Mutation(Op.SHUTDOWN, null, 0, 0));
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    private void run() {
+        List<Mutation> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // Give a burst of edits a moment to arrive so they share one flush
+                Thread.sleep(COALESCE_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+
+            for (Mutation mutation : batch) {
+                if (mutation.op() == Op.SHUTDOWN) {
+                    running = false;
+                }
+            }
+            String error = write(batch, !running);
+            batch.clear();
+            notifyListeners(error);
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        shadow.close();
+    }
+
+    private String write(List<Mutation> batch, boolean finalSnapshot) {
+        MetricEvents.PersistFlush event = new MetricEvents.PersistFlush();
+        event.begin();
+        batches.increment();
+        mutations.add(batch.size());
+        for (Mutation mutation : batch) {
+            if (mutation.op() == Op.PUT_ALL && mutation.batch().size() > JOURNALED_BATCH_ROWS
+                    || mutation.op() == Op.EDIT_ALL && mutation.edits().size() > JOURNALED_BATCH_ROWS) {
+                snapshotNeeded = true;
+            }
+        }
+        try {
+            if (!snapshotNeeded) {
+                long start = System.nanoTime();
+                for (Mutation mutation : batch) {
+                    append(mutation);
+                }
+                journal.flush();
+                journalLatency.recordSince(start);
+            }
+        } catch (IOException e) {
+            // The journal may now end in a torn record, so fold everything into a fresh snapshot instead
+            e.printStackTrace();
+            failures.increment();
+            snapshotNeeded = true;
+        }
+        for (Mutation mutation : batch) {
+            apply(mutation);
+        }
+        if (!stockListeners.isEmpty()) {
+            notifyStockListeners(batch);
+        }
+
+        String error = null;
+        boolean snapshot = snapshotNeeded || finalSnapshot || journal.needsCompaction();
+        if (snapshot) {
+            long start = System.nanoTime();
+            try {
+                long nextEpoch = journal.getEpoch() + 1;
+                snapshotWriter.write(products, inventory, barcodes, reorderLevels, categories, nextEpoch);
+                journal.reset(nextEpoch);
+                snapshotNeeded = false;
+                snapshotLatency.recordSince(start);
+            } catch (IOException e) {
+                e.printStackTrace();
+                failures.increment();
+                snapshotNeeded = true;
+                error = e.getMessage() == null ? e.toString() : e.getMessage();
+            }
+        }
+
+        if (error == null) {
+            long now = System.nanoTime();
+            for (Mutation mutation : batch) {
+                lag.record(now - mutation.queuedAt());
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.mutations = batch.size();
+            event.snapshot = snapshot;
+            event.failed = error != null;
+            event.commit();
+        }
+        return error;
+    }
+
+    private void append(Mutation mutation) throws IOException {
+        switch (mutation.op()) {
+            case PUT:
+                journal.appendPut(mutation.name(), mutation.price(), mutation.amount());
+                break;
+            case PUT_ALL:
+                for (Product product : mutation.batch()) {
+                    journal.appendPut(product.name(), product.price(), product.stock());
+                    journal.appendCategory(product.name(), product.category());
+                    if (product.barcode() != 0) {
+                        journal.appendBarcode(product.name(), product.barcode());
+                    }
+                }
+                break;
+            case EDIT_ALL:
+                journal.appendEdits(mutation.edits());
+                break;
+            case PRICE:
+                journal.appendPrice(mutation.name(), mutation.price());
+                break;
+            case STOCK_DELTA:
+                journal.appendStockDelta(mutation.name(), mutation.amount());
+                break;
+            case BARCODE:
+                journal.appendBarcode(mutation.name(), mutation.barcode());
+                break;
+            case REORDER_LEVEL:
+                journal.appendReorderLevel(mutation.name(), mutation.amount());
+                break;
+            case CATEGORY:
+                journal.appendCategory(mutation.name(), mutation.category());
+                break;
+            case DELETE:
+                journal.appendDelete(mutation.name());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void apply(Mutation mutation) {
+        switch (mutation.op()) {
+            case PUT:
+                products.put(mutation.name(), mutation.price());
+                inventory.put(mutation.name(), mutation.amount());
+                break;
+            case PUT_ALL:
+                for (Product product : mutation.batch()) {
+                    products.put(product.name(), product.price());
+                    inventory.put(product.name(), product.stock());
+                    categories.put(product.name(), product.category());
+                    if (product.barcode() != 0) {
+                        barcodes.put(product.name(), product.barcode());
+                    }
+                }
+                break;
+            case EDIT_ALL:
+                for (CatalogBatch.Edit edit : mutation.edits()) {
+                    if (edit.price() >= 0) {
+                        products.put(edit.name(), edit.price());
+                    }
+                    inventory.computeIfPresent(edit.name(), (k, stock) -> stock + edit.stockDelta());
+                    if (edit.category() != null) {
+                        categories.put(edit.name(), edit.category());
+                    }
+                }
+                break;
+            case PRICE:
+                products.put(mutation.name(), mutation.price());
+                break;
+            case STOCK_DELTA:
+                inventory.computeIfPresent(mutation.name(), (k, stock) -> stock + mutation.amount());
+                break;
+            case BARCODE:
+                barcodes.put(mutation.name(), mutation.barcode());
+                break;
+            case REORDER_LEVEL:
+                if (mutation.amount() < 0) {
+                    reorderLevels.remove(mutation.name());
+                } else {
+                    reorderLevels.put(mutation.name(), mutation.amount());
+                }
+                break;
+            case CATEGORY:
+                categories.put(mutation.name(), mutation.category());
+                break;
+            case DELETE:
+                products.remove(mutation.name());
+                inventory.remove(mutation.name());
+                barcodes.remove(mutation.name());
+                reorderLevels.remove(mutation.name());
+                categories.remove(mutation.name());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void notifyStockListeners(List<Mutation> batch) {
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        for (Mutation mutation : batch) {
+            switch (mutation.op()) {
+                case PUT:
+                case STOCK_DELTA:
+                case DELETE:
+                    changed.put(mutation.name(), inventory.getOrDefault(mutation.name(), 0));
+                    break;
+                case PUT_ALL:
+                    for (Product product : mutation.batch()) {
+                        changed.put(product.name(), inventory.getOrDefault(product.name(), 0));
+                    }
+                    break;
+                case EDIT_ALL:
+                    for (CatalogBatch.Edit edit : mutation.edits()) {
+                        if (edit.stockDelta() != 0) {
+                            changed.put(edit.name(), inventory.getOrDefault(edit.name(), 0));
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (StockListener listener : stockListeners) {
+                listener.stockChanged(changed);
+            }
+        }
+    }
+
+    private void notifyListeners(String error) {
+        int pending = queue.size();
+        for (Listener listener : listeners) {
+            listener.persistenceChanged(pending, error);
+        }
+    }
+}
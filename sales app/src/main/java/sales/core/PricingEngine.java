@@ -0,0 +1,225 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Promotions compiled into a Plan: the rules live at that moment bucketed by product and by
+// category, with rules another one in the same bucket always beats pruned away. Pricing a cart line
+// looks at one product's merged candidates, so its cost does not grow with the number of promotions.
+// A plan holds until the next time any promotion starts or ends, or until promotions are edited.
+public class PricingEngine {
+    private static final Promotion[] NONE = new Promotion[0];
+
+    private final Map<String, String> categories;
+    private final Map<Long, Promotion> promotions = new HashMap<>();
+    private long nextId = 1;
+    private long version;
+    private volatile Plan plan;
+    private final LatencyHistogram compileLatency = Metrics.histogram("pricing.compile");
+
+    public PricingEngine(Collection<Promotion> initial, Map<String, String> categories) {
+        this.categories = categories;
+        for (Promotion promotion : initial) {
+            promotions.put(promotion.id(), promotion);
+            nextId = Math.max(nextId, promotion.id() + 1);
+        }
+    }
+
+    // Adds a promotion under a new id and returns it. Throws IllegalArgumentException if invalid.
+    public synchronized Promotion add(Promotion.Type type, boolean category, String target, int quantity, long value,
+                                      long startsAt, long endsAt) {
+        Promotion promotion = new Promotion(nextId, type, category, target, quantity, value, startsAt, endsAt);
+        nextId++;
+        promotions.put(promotion.id(), promotion);
+        changed();
+        return promotion;
+    }
+
+    public synchronized boolean remove(long id) {
+        if (promotions.remove(id) == null) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    // Every promotion, live or not, by id
+    public synchronized List<Promotion> getPromotions() {
+        List<Promotion> list = new ArrayList<>(promotions.values());
+        list.sort(Comparator.comparingLong(Promotion::id));
+        return list;
+    }
+
+    // Bumped on every edit, so saves can tell which copy is newest
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public Plan plan() {
+        return plan(System.currentTimeMillis());
+    }
+
+    public Plan plan(long now) {
+        Plan current = plan;
+        if (current != null && now >= current.validFrom && now < current.validUntil) {
+            return current;
+        }
+        return compile(now);
+    }
+
+    private void changed() {
+        version++;
+        plan = null;
+    }
+
+    private synchronized Plan compile(long now) {
+        Plan current = plan;
+        if (current != null && now >= current.validFrom && now < current.validUntil) {
+            return current;
+        }
+        long start = System.nanoTime();
+        Map<String, List<Promotion>> byProduct = new HashMap<>();
+        Map<String, List<Promotion>> byCategory = new HashMap<>();
+        long validFrom = Long.MIN_VALUE;
+        long validUntil = Long.MAX_VALUE;
+        for (Promotion promotion : promotions.values()) {
+            // The plan holds between the last start or end at or before now and the next one after it
+            for (long boundary : new long[] {promotion.startsAt(), promotion.endsAt()}) {
+                if (boundary == 0) {
+                    continue;
+                }
+                if (boundary <= now) {
+                    validFrom = Math.max(validFrom, boundary);
+                } else {
+                    validUntil = Math.min(validUntil, boundary);
+                }
+            }
+            if (promotion.isActive(now)) {
+                (promotion.category() ? byCategory : byProduct)
+                    .computeIfAbsent(promotion.target(), k -> new ArrayList<>()).add(promotion);
+            }
+        }
+        Plan compiled = new Plan(compact(byProduct), compact(byCategory), categories, validFrom, validUntil);
+        plan = compiled;
+        compileLatency.recordSince(start);
+        return compiled;
+    }
+
+    private static Map<String, Promotion[]> compact(Map<String, List<Promotion>> buckets) {
+        Map<String, Promotion[]> compacted = new HashMap<>(buckets.size() * 2);
+        buckets.forEach((key, rules) -> compacted.put(key, prune(rules)));
+        return compacted;
+    }
+
+    // Drops every rule that another rule of the same kind beats for any quantity: a percent or
+    // amount off that is no larger and needs no fewer units, or a multi-buy of the same group size
+    // that costs no less
+    static Promotion[] prune(List<Promotion> rules) {
+        List<Promotion> sorted = new ArrayList<>(rules);
+        sorted.sort(Comparator.comparing(Promotion::type)
+            .thenComparingInt(Promotion::quantity)
+            .thenComparing(Comparator.comparingLong(Promotion::value).reversed())
+            .thenComparingLong(Promotion::id));
+        List<Promotion> kept = new ArrayList<>();
+        Promotion.Type type = null;
+        long best = Long.MIN_VALUE;
+        int groupSize = -1;
+        for (Promotion rule : sorted) {
+            if (rule.type() != type) {
+                type = rule.type();
+                best = Long.MIN_VALUE;
+                groupSize = -1;
+            }
+            if (type == Promotion.Type.MULTI_BUY) {
+                // Cheapest group price comes last within a group size
+                if (rule.quantity() == groupSize) {
+                    kept.set(kept.size() - 1, rule);
+                } else {
+                    kept.add(rule);
+                    groupSize = rule.quantity();
+                }
+            } else if (rule.value() > best) {
+                kept.add(rule);
+                best = rule.value();
+            }
+        }
+        return kept.toArray(NONE);
+    }
+
+    public static final class Plan {
+        private record Candidates(String category, Promotion[] rules) {}
+
+        private final Map<String, Promotion[]> byProduct;
+        private final Map<String, Promotion[]> byCategory;
+        private final Map<String, String> categories;
+        private final long validFrom;
+        private final long validUntil;
+        // Product and category rules merged per product, built on first use
+        private final Map<String, Candidates> merged = new ConcurrentHashMap<>();
+
+        private Plan(Map<String, Promotion[]> byProduct, Map<String, Promotion[]> byCategory,
+                     Map<String, String> categories, long validFrom, long validUntil) {
+            this.byProduct = byProduct;
+            this.byCategory = byCategory;
+            this.categories = categories;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        public boolean isEmpty() {
+            return byProduct.isEmpty() && byCategory.isEmpty();
+        }
+
+        public long getValidUntil() {
+            return validUntil;
+        }
+
+        // The promotion that takes the most off this line, or null. Deals do not stack; on a tie the
+        // oldest promotion wins.
+        public Promotion best(String name, int quantity, long unitCents) {
+            if (isEmpty()) {
+                return null;
+            }
+            Promotion best = null;
+            long bestDiscount = 0;
+            for (Promotion rule : candidates(name)) {
+                long discount = rule.discountCents(quantity, unitCents);
+                if (discount > bestDiscount || discount == bestDiscount && discount > 0 && rule.id() < best.id()) {
+                    best = rule;
+                    bestDiscount = discount;
+                }
+            }
+            return best;
+        }
+
+        private Promotion[] candidates(String name) {
+            String category = categories.get(name);
+            Candidates candidates = merged.get(name);
+            // A product moved to another category since its candidates were merged
+            if (candidates == null || !Objects.equals(candidates.category(), category)) {
+                Promotion[] own = byProduct.getOrDefault(name, NONE);
+                Promotion[] shared = category == null ? NONE : byCategory.getOrDefault(category, NONE);
+                Promotion[] rules;
+                if (shared.length == 0) {
+                    rules = own;
+                } else if (own.length == 0) {
+                    rules = shared;
+                } else {
+                    List<Promotion> both = new ArrayList<>(Arrays.asList(own));
+                    both.addAll(Arrays.asList(shared));
+                    rules = prune(both);
+                }
+                candidates = new Candidates(category, rules);
+                merged.put(name, candidates);
+            }
+            return candidates.rules();
+        }
+    }
+}
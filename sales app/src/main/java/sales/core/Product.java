@@ -0,0 +1,22 @@
+package sales.core;
+
+// barcode is 0 for products without one
+public record Product(String name, String category, double price, int stock, long barcode) {
+
+    public Product(String name, String category, double price, int stock) {
+        this(name, category, price, stock, 0);
+    }
+
+    public Product withPrice(double newPrice) {
+        return new Product(name, category, newPrice, stock, barcode);
+    }
+
+    public Product withStock(int newStock) {
+        return new Product(name, category, price, newStock, barcode);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %s - $%.2f (Stock: %d)", category, name, price, stock);
+    }
+}
@@ -0,0 +1,432 @@
+package sales.core;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+// n-gram index over product names, partitioned by category: each category keeps a sorted posting
+// list of its product ids, so browsing one costs only its own products and a name search within
+// it walks whichever of the two candidate lists is shorter. Methods are synchronized so searches
+// can run off the EDT while Admin edits the catalog.
+public class ProductSearchIndex {
+    private static final int MAX_GRAM = 3;
+    // How many candidates a search checks between looks at its cancellation flag
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+    private static final LatencyHistogram SEARCH_LATENCY = Metrics.histogram("search");
+    private static final LongAdder CANCELLED = Metrics.counter("search.cancelled");
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<String> lowerNames = new ArrayList<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private final GramTable postings = new GramTable();
+    private int modCount;
+
+    // Category id per product id (-1 for a free id), and each category's name and products
+    private int[] productCategory = new int[16];
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final ArrayList<String> categoryNames = new ArrayList<>();
+    private final ArrayList<IntList> categoryPostings = new ArrayList<>();
+
+    // The previous query and its matches, reused when the next keystroke only narrows it
+    private String lastQuery;
+    private IntList lastResults;
+    private int lastModCount = -1;
+
+    public ProductSearchIndex(Collection<String> initialNames) {
+        this(initialNames, Map.of());
+    }
+
+    // Products missing from categories go under CatalogTransfer.DEFAULT_CATEGORY, as they are shown
+    public ProductSearchIndex(Collection<String> initialNames, Map<String, String> categories) {
+        for (String name : initialNames) {
+            add(name, categories.get(name));
+        }
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    // Adds the product under the default category; one already present keeps its own
+    public synchronized void add(String name) {
+        if (!ids.containsKey(name)) {
+            add(name, null);
+        }
+    }
+
+    // Adds the product, or moves an existing one to the category
+    public synchronized void add(String name, String category) {
+        if (ids.containsKey(name)) {
+            setCategory(name, category);
+            return;
+        }
+        int id;
+        String lower = name.toLowerCase();
+        if (freeIds.isEmpty()) {
+            id = names.size();
+            names.add(name);
+            lowerNames.add(lower);
+        } else {
+            id = freeIds.poll();
+            names.set(id, name);
+            lowerNames.set(id, lower);
+        }
+        ids.put(name, id);
+        if (id == productCategory.length) {
+            productCategory = Arrays.copyOf(productCategory, id * 2);
+        }
+        productCategory[id] = categoryId(category);
+        categoryPostings.get(productCategory[id]).insert(id);
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= lower.length(); i++) {
+                postings.getOrCreate(gram(lower, i, n)).insert(id);
+            }
+        }
+        modCount++;
+    }
+
+    public synchronized void remove(String name) {
+        Integer id = ids.remove(name);
+        if (id == null) {
+            return;
+        }
+        String lower = lowerNames.get(id);
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= lower.length(); i++) {
+                long gram = gram(lower, i, n);
+                IntList posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+        categoryPostings.get(productCategory[id]).remove(id);
+        productCategory[id] = -1;
+        names.set(id, null);
+        lowerNames.set(id, null);
+        freeIds.push(id);
+        modCount++;
+    }
+
+    public synchronized void setCategory(String name, String category) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            return;
+        }
+        int newCategory = categoryId(category);
+        if (newCategory != productCategory[id]) {
+            categoryPostings.get(productCategory[id]).remove(id);
+            categoryPostings.get(newCategory).insert(id);
+            productCategory[id] = newCategory;
+            modCount++;
+        }
+    }
+
+    public synchronized String getCategory(String name) {
+        Integer id = ids.get(name);
+        return id == null ? null : categoryNames.get(productCategory[id]);
+    }
+
+    // Live product count per category, by name; categories left empty are not listed
+    public synchronized Map<String, Integer> categoryCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < categoryNames.size(); i++) {
+            if (categoryPostings.get(i).size > 0) {
+                counts.put(categoryNames.get(i), categoryPostings.get(i).size);
+            }
+        }
+        return counts;
+    }
+
+    private int categoryId(String category) {
+        String key = category == null || category.isEmpty() ? CatalogTransfer.DEFAULT_CATEGORY : category;
+        Integer id = categoryIds.get(key);
+        if (id == null) {
+            id = categoryNames.size();
+            categoryIds.put(key, id);
+            categoryNames.add(key);
+            categoryPostings.add(new IntList());
+        }
+        return id;
+    }
+
+    // The product keeps its category
+    public synchronized void rename(String oldName, String newName) {
+        if (!oldName.equals(newName)) {
+            String category = getCategory(oldName);
+            remove(oldName);
+            add(newName, category);
+        }
+    }
+
+    // Returns the names containing the query, case-insensitively, in index order
+    public List<String> search(String query) {
+        return search(query, () -> false);
+    }
+
+    // As search(query), but gives up and returns null once cancelled reports true
+    public List<String> search(String query, BooleanSupplier cancelled) {
+        return search(query, null, cancelled);
+    }
+
+    // As search(query, cancelled) within one category; a null category searches them all
+    public List<String> search(String query, String category, BooleanSupplier cancelled) {
+        long start = System.nanoTime();
+        MetricEvents.Search event = new MetricEvents.Search();
+        event.begin();
+        List<String> result = category == null ? find(query, cancelled) : findInCategory(query, category, cancelled);
+        if (result == null) {
+            CANCELLED.increment();
+        } else {
+            SEARCH_LATENCY.recordSince(start);
+        }
+        if (event.shouldCommit()) {
+            event.queryLength = query.length();
+            event.results = result == null ? 0 : result.size();
+            event.cancelled = result == null;
+            event.commit();
+        }
+        return result;
+    }
+
+    private synchronized List<String> find(String query, BooleanSupplier cancelled) {
+        String q = query.toLowerCase();
+        IntList matches;
+
+        if (q.isEmpty()) {
+            matches = new IntList();
+            for (int id = 0; id < names.size(); id++) {
+                if (names.get(id) != null) {
+                    matches.add(id);
+                }
+            }
+        } else {
+            IntList candidates = smallestPosting(q);
+            boolean exact = q.length() <= MAX_GRAM;
+            if (lastModCount == modCount && lastQuery != null && q.contains(lastQuery)
+                    && candidates != null && lastResults.size < candidates.size) {
+                candidates = lastResults;
+                exact = q.equals(lastQuery);
+            }
+
+            if (candidates == null) {
+                matches = new IntList();
+            } else if (exact) {
+                matches = candidates.copy();
+            } else {
+                matches = new IntList();
+                for (int i = 0; i < candidates.size; i++) {
+                    if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                        return null;
+                    }
+                    int id = candidates.values[i];
+                    if (lowerNames.get(id).contains(q)) {
+                        matches.add(id);
+                    }
+                }
+            }
+        }
+
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+        lastQuery = q;
+        lastResults = matches;
+        lastModCount = modCount;
+
+        List<String> result = new ArrayList<>(matches.size);
+        for (int i = 0; i < matches.size; i++) {
+            result.add(names.get(matches.values[i]));
+        }
+        return result;
+    }
+
+    // Walks the shorter of the category's products and the query's rarest gram posting, checking
+    // the other condition per candidate. Leaves the narrowing cache of unfiltered searches alone.
+    private synchronized List<String> findInCategory(String query, String category, BooleanSupplier cancelled) {
+        String q = query.toLowerCase();
+        Integer categoryId = categoryIds.get(category);
+        List<String> result = new ArrayList<>();
+        if (categoryId == null) {
+            return result;
+        }
+        IntList inCategory = categoryPostings.get(categoryId);
+        IntList candidates = q.isEmpty() ? inCategory : smallestPosting(q);
+        if (candidates == null) {
+            return result;
+        }
+        boolean byCategory = candidates.size >= inCategory.size;
+        if (byCategory) {
+            candidates = inCategory;
+        }
+        boolean exact = q.length() <= MAX_GRAM && !byCategory;
+        for (int i = 0; i < candidates.size; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            int id = candidates.values[i];
+            if ((byCategory || productCategory[id] == categoryId) && (exact || lowerNames.get(id).contains(q))) {
+                result.add(names.get(id));
+            }
+        }
+        return cancelled.getAsBoolean() ? null : result;
+    }
+
+    // Every gram of the query must occur in a match, so the rarest one bounds the candidates.
+    // Returns null when some gram occurs nowhere.
+    private IntList smallestPosting(String q) {
+        int n = Math.min(MAX_GRAM, q.length());
+        IntList smallest = null;
+        for (int i = 0; i + n <= q.length(); i++) {
+            IntList posting = postings.get(gram(q, i, n));
+            if (posting == null) {
+                return null;
+            }
+            if (smallest == null || posting.size < smallest.size) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    // The substring of length n (at most MAX_GRAM) at i, packed with its length into one key
+    private static long gram(String s, int i, int n) {
+        long key = n;
+        for (int k = 0; k < n; k++) {
+            key = (key << 16) | s.charAt(i + k);
+        }
+        return key;
+    }
+
+    // Sorted list of product ids
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void insert(int value) {
+            if (size == 0 || values[size - 1] < value) {
+                add(value);
+                return;
+            }
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+        }
+
+        void remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        IntList copy() {
+            IntList copy = new IntList();
+            copy.values = Arrays.copyOf(values, Math.max(size, 4));
+            copy.size = size;
+            return copy;
+        }
+    }
+
+    // Open-addressed map from packed gram keys to postings; 0 marks a free slot
+    private static class GramTable {
+        long[] keys = new long[1024];
+        IntList[] values = new IntList[1024];
+        int size;
+
+        IntList get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        IntList getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                return getOrCreate(key);
+            }
+            keys[slot] = key;
+            values[slot] = new IntList();
+            size++;
+            return values[slot];
+        }
+
+        // Backward-shift deletion keeps every probe chain unbroken
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = 0;
+            values[gap] = null;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            IntList[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new IntList[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
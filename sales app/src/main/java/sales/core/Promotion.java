@@ -0,0 +1,71 @@
+package sales.core;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+// One deal defined in Admin. It targets a single product or a whole category and may be limited to
+// a time window [startsAt, endsAt) in epoch millis, 0 meaning open ended.
+//   PERCENT_OFF  value percent off every unit once at least quantity are bought
+//   AMOUNT_OFF   value cents off every unit once at least quantity are bought
+//   MULTI_BUY    every group of quantity units costs value cents
+public record Promotion(long id, Type type, boolean category, String target, int quantity, long value,
+                        long startsAt, long endsAt) {
+    public enum Type { PERCENT_OFF, AMOUNT_OFF, MULTI_BUY }
+
+    public Promotion {
+        if (target == null || target.isEmpty()) {
+            throw new IllegalArgumentException("Promotion needs a product or category");
+        }
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        if (value <= 0 || type == Type.PERCENT_OFF && value > 100) {
+            throw new IllegalArgumentException("Invalid promotion value: " + value);
+        }
+        if (endsAt != 0 && endsAt <= startsAt) {
+            throw new IllegalArgumentException("Promotion ends before it starts");
+        }
+    }
+
+    public boolean isActive(long now) {
+        return now >= startsAt && (endsAt == 0 || now < endsAt);
+    }
+
+    // Cents taken off a line of quantity units at unitCents each; never more than the line is worth
+    public long discountCents(int lineQuantity, long unitCents) {
+        long discount;
+        switch (type) {
+            case PERCENT_OFF:
+                discount = lineQuantity < quantity ? 0 : (unitCents * lineQuantity * value + 50) / 100;
+                break;
+            case AMOUNT_OFF:
+                discount = lineQuantity < quantity ? 0 : Math.min(value, unitCents) * lineQuantity;
+                break;
+            default:
+                discount = (lineQuantity / quantity) * (unitCents * quantity - value);
+                break;
+        }
+        return Math.max(0, Math.min(discount, unitCents * lineQuantity));
+    }
+
+    // Short text for cart lines and receipts, e.g. "3 for $5.00"
+    public String label() {
+        switch (type) {
+            case PERCENT_OFF:
+                return value + "% off" + (quantity > 1 ? " " + quantity + "+" : "");
+            case AMOUNT_OFF:
+                return "$" + Money.format(value) + " off" + (quantity > 1 ? " " + quantity + "+" : "");
+            default:
+                return quantity + " for $" + Money.format(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        String window = startsAt == 0 && endsAt == 0 ? ""
+            : " (" + (startsAt == 0 ? "now" : format.format(new Date(startsAt)))
+                + " - " + (endsAt == 0 ? "open" : format.format(new Date(endsAt))) + ")";
+        return String.format("#%d %s on %s%s%s", id, label(), category ? "category " : "", target, window);
+    }
+}
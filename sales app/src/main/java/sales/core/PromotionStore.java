@@ -0,0 +1,77 @@
+package sales.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Promotions are few and edited by hand, so they are kept apart from the catalog snapshot in a
+// tab separated promotions.tsv that is rewritten whole on every change:
+// id, type, product|category, target, quantity, value, starts, ends (epoch millis, 0 = open).
+public class PromotionStore {
+    private static final String HEADER = "id\ttype\tapplies_to\ttarget\tquantity\tvalue\tstarts\tends";
+
+    private final File file;
+    private long savedVersion = -1;
+
+    public PromotionStore(File dataDirectory) {
+        this.file = new File(dataDirectory, "promotions.tsv");
+    }
+
+    public List<Promotion> load() throws IOException {
+        List<Promotion> promotions = new ArrayList<>();
+        if (!file.exists()) {
+            return promotions;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("id\t")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                try {
+                    if (fields.length != 8) {
+                        throw new IllegalArgumentException("expected 8 fields");
+                    }
+                    promotions.add(new Promotion(Long.parseLong(fields[0]), Promotion.Type.valueOf(fields[1]),
+                        fields[2].equals("category"), fields[3], Integer.parseInt(fields[4]), Long.parseLong(fields[5]),
+                        Long.parseLong(fields[6]), Long.parseLong(fields[7])));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return promotions;
+    }
+
+    // Writes the promotions as of the given PricingEngine version. Saves finishing out of order
+    // never replace a newer copy with an older one.
+    public synchronized void save(List<Promotion> promotions, long version) throws IOException {
+        if (version <= savedVersion) {
+            return;
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.newLine();
+            for (Promotion promotion : promotions) {
+                writer.write(promotion.id() + "\t" + promotion.type() + "\t"
+                    + (promotion.category() ? "category" : "product") + "\t"
+                    + promotion.target().replace('\t', ' ').replace('\n', ' ') + "\t"
+                    + promotion.quantity() + "\t" + promotion.value() + "\t"
+                    + promotion.startsAt() + "\t" + promotion.endsAt());
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+            throw new IOException("Could not replace " + file);
+        }
+        savedVersion = version;
+    }
+}
@@ -0,0 +1,51 @@
+package sales.core;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+
+public record Receipt(String laneId, Date time, List<CartLine> lines, long totalCents) {
+
+    // DateTimeFormatter is immutable, so one instance serves every thread
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+
+    public int itemCount() {
+        int items = 0;
+        for (CartLine line : lines) {
+            items += line.quantity();
+        }
+        return items;
+    }
+
+    public long savingsCents() {
+        long savings = 0;
+        for (CartLine line : lines) {
+            savings += line.discountCents();
+        }
+        return savings;
+    }
+
+    public String format() {
+        return appendTo(new StringBuilder(256)).toString();
+    }
+
+    // Renders the receipt onto the end of text, so a caller printing many can reuse one buffer
+    public StringBuilder appendTo(StringBuilder receipt) {
+        receipt.append("=== SALES RECEIPT ===\n");
+        receipt.append("Date: ");
+        DATE_TIME.formatTo(time.toInstant(), receipt);
+        receipt.append("\n\n");
+
+        for (CartLine line : lines) {
+            line.appendTo(receipt).append('\n');
+        }
+
+        long savings = savingsCents();
+        if (savings != 0) {
+            Money.appendTo(receipt.append("\nYou saved: $"), savings);
+        }
+        return Money.appendTo(receipt.append("\nTotal Amount: $"), totalCents);
+    }
+}
@@ -0,0 +1,135 @@
+package sales.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Prints receipts on a background thread so a lane never waits for one. Sales are already in the
+// ledger when they get here; this only renders them into receipts-YYYY-MM-DD.txt, the stand-in for
+// the till printer. Receipts queued while a batch is being written go out together with one flush.
+public class ReceiptSpooler {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int BATCH = 256;
+    private static final Receipt SHUTDOWN = new Receipt("", new Date(0), List.of(), 0);
+
+    private final File directory;
+    private final BlockingQueue<Receipt> queue;
+    private final Thread printer;
+    private final StringBuilder text = new StringBuilder(4096);
+    private LocalDate day;
+    private Writer out;
+
+    private final LatencyHistogram batchLatency = Metrics.histogram("receipts.batch");
+    private final LongAdder printed = Metrics.counter("receipts.printed");
+    private final LongAdder rejected = Metrics.counter("receipts.rejected");
+    private final LongAdder failures = Metrics.counter("receipts.failures");
+
+    public ReceiptSpooler(File directory, int capacity) {
+        this.directory = directory;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        directory.mkdirs();
+        this.printer = new Thread(this::run, "receipt-spooler");
+        this.printer.setDaemon(true);
+        this.printer.start();
+    }
+
+    public static File receiptFile(File directory, LocalDate day) {
+        return new File(directory, "receipts-" + day + ".txt");
+    }
+
+    // Queues the receipt without waiting. Returns false if the queue is full or shut down; the sale
+    // stays in the ledger and its receipt can be shown from there.
+    public boolean submit(Receipt receipt) {
+        if (!printer.isAlive() || !queue.offer(receipt)) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    // Prints what is queued and stops. Returns false if that did not finish within the timeout.
+    public boolean shutdown(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            if (printer.isAlive() && queue.offer(SHUTDOWN, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                printer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !printer.isAlive();
+    }
+
+    private void run() {
+        List<Receipt> batch = new ArrayList<>(BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, BATCH - 1);
+            long start = System.nanoTime();
+            int count = 0;
+            try {
+                for (Receipt receipt : batch) {
+                    if (receipt == SHUTDOWN) {
+                        running = false;
+                        continue;
+                    }
+                    print(receipt);
+                    count++;
+                }
+                if (out != null) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Start the day's file afresh on the next receipt; the sales themselves are safe
+                e.printStackTrace();
+                failures.increment();
+                close();
+            }
+            printed.add(count);
+            batchLatency.recordSince(start);
+            batch.clear();
+        }
+        close();
+    }
+
+    private void print(Receipt receipt) throws IOException {
+        LocalDate saleDay = receipt.time().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (!saleDay.equals(day) || out == null) {
+            close();
+            out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(receiptFile(directory, saleDay), true), StandardCharsets.UTF_8), 64 * 1024);
+            day = saleDay;
+        }
+        text.setLength(0);
+        receipt.appendTo(text).append("\n\n");
+        out.append(text);
+    }
+
+    private void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+    }
+}
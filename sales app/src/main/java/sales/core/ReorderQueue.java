@@ -0,0 +1,277 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Products at or below their reorder level, most short first, kept up to date from every stock
+// change rather than by scanning the catalog. Only low products are in the heap, and a change to a
+// product that is neither low nor becoming low costs two hash lookups and no lock.
+public class ReorderQueue implements InventoryEngine.Listener {
+    public record Entry(String name, int available, int reorderLevel) {
+        public int shortfall() {
+            return reorderLevel - available;
+        }
+    }
+
+    private final InventoryEngine inventory;
+    private final int defaultLevel;
+    // Per-product reorder levels; products without one use defaultLevel
+    private final Map<String, Integer> levels;
+    // Products that are in the heap or about to be checked for it
+    private final Map<String, Boolean> flagged = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    // Indexed binary min-heap on available - reorder level
+    private String[] heap = new String[64];
+    private int[] keys = new int[64];
+    private int[] available = new int[64];
+    private int size;
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    // Builds the queue with one pass over the catalog and then follows the inventory's changes
+    public ReorderQueue(InventoryEngine inventory, Map<String, Integer> levels, int defaultLevel) {
+        this.inventory = inventory;
+        this.defaultLevel = defaultLevel;
+        this.levels = new ConcurrentHashMap<>(levels);
+        inventory.addListener(this);
+        for (String name : inventory.names()) {
+            stockChanged(name, inventory.getAvailable(name));
+        }
+    }
+
+    public int getDefaultLevel() {
+        return defaultLevel;
+    }
+
+    public int getReorderLevel(String name) {
+        return levels.getOrDefault(name, defaultLevel);
+    }
+
+    // Whether the product has its own level rather than the default
+    public boolean hasOwnLevel(String name) {
+        return levels.containsKey(name);
+    }
+
+    // level < 0 goes back to the default
+    public void setReorderLevel(String name, int level) {
+        if (level < 0) {
+            levels.remove(name);
+        } else {
+            levels.put(name, level);
+        }
+        recheck(name);
+    }
+
+    public Map<String, Integer> getReorderLevels() {
+        return new HashMap<>(levels);
+    }
+
+    // Bumped whenever the set of low products or their stock changes, so views can poll cheaply
+    public long getVersion() {
+        return version.get();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public void stockChanged(String name, int available) {
+        if (available > getReorderLevel(name) && !flagged.containsKey(name)) {
+            return;
+        }
+        recheck(name);
+    }
+
+    @Override
+    public void productRemoved(String name) {
+        levels.remove(name);
+        synchronized (this) {
+            flagged.remove(name);
+            Integer position = positions.get(name);
+            if (position != null) {
+                removeAt(position);
+                version.incrementAndGet();
+            }
+        }
+    }
+
+    // Flagging before reading the stock means a concurrent change either sees the flag and comes
+    // here too, or happened before the read below
+    private synchronized void recheck(String name) {
+        flagged.put(name, Boolean.TRUE);
+        int level = getReorderLevel(name);
+        int current = inventory.getAvailable(name);
+        Integer position = positions.get(name);
+        if (!inventory.contains(name) || current > level) {
+            flagged.remove(name);
+            if (position != null) {
+                removeAt(position);
+                version.incrementAndGet();
+            }
+            return;
+        }
+        int key = current - level;
+        if (position == null) {
+            if (size == heap.length) {
+                grow();
+            }
+            heap[size] = name;
+            keys[size] = key;
+            available[size] = current;
+            positions.put(name, size);
+            siftUp(size++);
+        } else if (keys[position] != key || available[position] != current) {
+            int old = keys[position];
+            keys[position] = key;
+            available[position] = current;
+            if (key < old) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+        } else {
+            return;
+        }
+        version.incrementAndGet();
+    }
+
+    // Up to limit low products, most short first, in O(limit log limit) without touching the rest
+    public synchronized List<Entry> lowest(int limit) {
+        List<Entry> result = new ArrayList<>(Math.min(limit, size));
+        // Frontier of heap positions whose parents have already been taken, as a small min-heap
+        int[] frontier = new int[Math.min(size, Math.max(1, limit)) * 2 + 1];
+        int frontierSize = 0;
+        if (size > 0) {
+            frontier[frontierSize++] = 0;
+        }
+        while (frontierSize > 0 && result.size() < limit) {
+            int top = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            frontierSiftDown(frontier, frontierSize, 0);
+            result.add(new Entry(heap[top], available[top], available[top] - keys[top]));
+            for (int child = top * 2 + 1; child <= top * 2 + 2 && child < size; child++) {
+                if (frontierSize == frontier.length) {
+                    int[] grown = new int[frontier.length * 2];
+                    System.arraycopy(frontier, 0, grown, 0, frontierSize);
+                    frontier = grown;
+                }
+                frontier[frontierSize] = child;
+                frontierSiftUp(frontier, frontierSize++);
+            }
+        }
+        return result;
+    }
+
+    private void frontierSiftUp(int[] frontier, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(frontier[i], frontier[parent])) {
+                break;
+            }
+            int swap = frontier[i];
+            frontier[i] = frontier[parent];
+            frontier[parent] = swap;
+            i = parent;
+        }
+    }
+
+    private void frontierSiftDown(int[] frontier, int frontierSize, int i) {
+        while (true) {
+            int smallest = i;
+            for (int child = i * 2 + 1; child <= i * 2 + 2 && child < frontierSize; child++) {
+                if (less(frontier[child], frontier[smallest])) {
+                    smallest = child;
+                }
+            }
+            if (smallest == i) {
+                return;
+            }
+            int swap = frontier[i];
+            frontier[i] = frontier[smallest];
+            frontier[smallest] = swap;
+            i = smallest;
+        }
+    }
+
+    // Most short first, then fewest left, then by name so the order is stable
+    private boolean less(int a, int b) {
+        if (keys[a] != keys[b]) {
+            return keys[a] < keys[b];
+        }
+        if (available[a] != available[b]) {
+            return available[a] < available[b];
+        }
+        return heap[a].compareTo(heap[b]) < 0;
+    }
+
+    private void removeAt(int position) {
+        positions.remove(heap[position]);
+        int last = --size;
+        if (position != last) {
+            String moved = heap[last];
+            move(last, position);
+            heap[last] = null;
+            siftUp(position);
+            siftDown(positions.get(moved));
+        } else {
+            heap[last] = null;
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            for (int child = i * 2 + 1; child <= i * 2 + 2 && child < size; child++) {
+                if (less(child, smallest)) {
+                    smallest = child;
+                }
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String name = heap[a];
+        int key = keys[a];
+        int left = available[a];
+        move(b, a);
+        heap[b] = name;
+        keys[b] = key;
+        available[b] = left;
+        positions.put(name, b);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        available[to] = available[from];
+        positions.put(heap[to], to);
+    }
+
+    private void grow() {
+        heap = Arrays.copyOf(heap, heap.length * 2);
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        available = Arrays.copyOf(available, available.length * 2);
+    }
+}
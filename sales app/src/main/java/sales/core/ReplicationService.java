@@ -0,0 +1,337 @@
+package sales.core;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Replicates stock between stores through a shared drop directory, with no server and no locks
+// between nodes. Each node appends its own StockCounters totals to <node>.deltas there and tails
+// everybody else's file. Records carry totals rather than differences, so reading one twice or
+// after a restart is harmless. File layout: magic, generation, then length + CRC32 framed records
+// of an entry count and per entry a name and two varint totals.
+public class ReplicationService implements PersistenceService.StockListener {
+    private static final int MAGIC = 0x5352504C; // "SRPL"
+    private static final int HEADER_SIZE = 12;
+    private static final String SUFFIX = ".deltas";
+    private static final Pattern NODE_ID = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final int FRAME_ENTRIES = 4096;
+    private static final int MAX_FRAME_BYTES = 1 << 24;
+    // Own file is rewritten as one full state once it holds this many frames
+    private static final int COMPACT_FRAMES = 1000;
+
+    private static class Cursor {
+        long generation = -1;
+        long offset;
+        int frames;
+    }
+
+    private final File directory;
+    private final String node;
+    private final File file;
+    private final StockCounters counters;
+    private final Map<String, Cursor> peers = new HashMap<>();
+    private final ByteArrayOutputStream frameBuffer = new ByteArrayOutputStream(4096);
+    private final CRC32 crc = new CRC32();
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private long generation;
+    private int frames;
+    private ScheduledExecutorService syncer;
+
+    private final LatencyHistogram syncLatency = Metrics.histogram("replication.sync");
+    private final LongAdder sent = Metrics.counter("replication.sent");
+    private final LongAdder merged = Metrics.counter("replication.merged");
+    private final LongAdder failures = Metrics.counter("replication.failures");
+
+    // Restores this node's totals from its file in the directory, which is created if needed
+    public ReplicationService(File directory, String node) throws IOException {
+        if (!NODE_ID.matcher(node).matches()) {
+            throw new IllegalArgumentException("Node id may only use letters, digits, '.', '_' and '-': " + node);
+        }
+        this.directory = directory;
+        this.node = node;
+        this.file = new File(directory, node + SUFFIX);
+        this.counters = new StockCounters(node);
+        directory.mkdirs();
+        open();
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public StockCounters getCounters() {
+        return counters;
+    }
+
+    // Brings this node's totals in line with its current stock, e.g. after changes made while
+    // replication was off. Products it no longer has go to zero.
+    public void seed(Map<String, Integer> onHand) {
+        for (StockCounters.Entry entry : counters.localState()) {
+            if (!onHand.containsKey(entry.name())) {
+                counters.setLocal(entry.name(), 0);
+            }
+        }
+        onHand.forEach(counters::setLocal);
+    }
+
+    // Called on the persistence writer thread once local stock changes are in the journal
+    @Override
+    public void stockChanged(Map<String, Integer> onHand) {
+        onHand.forEach(counters::setLocal);
+    }
+
+    // Ships local changes and merges whatever the other nodes have written since the last call.
+    // Returns the number of entries that changed this replica.
+    public synchronized int sync() throws IOException {
+        long start = System.nanoTime();
+        push();
+        int updated = 0;
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File peerFile : files) {
+                String peer = peerFile.getName().substring(0, peerFile.getName().length() - SUFFIX.length());
+                if (!peer.equals(node) && NODE_ID.matcher(peer).matches()) {
+                    updated += pull(peerFile, peer, peers.computeIfAbsent(peer, k -> new Cursor()));
+                }
+            }
+        }
+        merged.add(updated);
+        syncLatency.recordSince(start);
+        return updated;
+    }
+
+    // Syncs every period on a daemon thread until stop()
+    public synchronized void start(long periodMillis) {
+        if (syncer != null) {
+            return;
+        }
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (IOException e) {
+                // The drop directory may be a network share that comes and goes; try again next time
+                e.printStackTrace();
+                failures.increment();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the sync thread, ships what is left and closes this node's file
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = syncer;
+            syncer = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                if (out != null) {
+                    push();
+                    out.close();
+                    out = null;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                failures.increment();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        if (file.exists()) {
+            Cursor own = new Cursor();
+            pull(file, node, own);
+            generation = own.generation;
+            frames = own.frames;
+            // Anything after the last intact frame is a torn write; start a clean file instead of
+            // appending behind it
+            if (own.generation < 0 || own.offset != file.length()) {
+                compact();
+                return;
+            }
+            fileOut = new FileOutputStream(file, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+        } else {
+            compact();
+        }
+    }
+
+    private void push() throws IOException {
+        if (out == null) {
+            compact();
+            return;
+        }
+        List<StockCounters.Entry> changes = counters.drainChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (frames >= COMPACT_FRAMES) {
+            compact();
+            return;
+        }
+        try {
+            writeFrames(out, changes);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            // The file may now end in a torn frame; the next push rewrites it whole
+            out = null;
+            throw e;
+        }
+        sent.add(changes.size());
+    }
+
+    // Replaces this node's file with a single copy of its current totals under a new generation,
+    // which tells readers to start over from the top
+    private void compact() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        List<StockCounters.Entry> state = counters.localState();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream tmpOut = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(tmpOut, 64 * 1024));
+            data.writeInt(MAGIC);
+            data.writeLong(generation + 1);
+            frames = 0;
+            writeFrames(data, state);
+            data.flush();
+            tmpOut.getFD().sync();
+        }
+        if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+            throw new IOException("Could not replace " + file);
+        }
+        generation++;
+        counters.drainChanges();
+        sent.add(state.size());
+        fileOut = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+    }
+
+    private void writeFrames(DataOutputStream data, List<StockCounters.Entry> entries) throws IOException {
+        for (int from = 0; from < entries.size(); from += FRAME_ENTRIES) {
+            int to = Math.min(entries.size(), from + FRAME_ENTRIES);
+            frameBuffer.reset();
+            DataOutputStream frame = new DataOutputStream(frameBuffer);
+            writeVarLong(frame, to - from);
+            for (StockCounters.Entry entry : entries.subList(from, to)) {
+                frame.writeUTF(entry.name());
+                writeVarLong(frame, entry.increments());
+                writeVarLong(frame, entry.decrements());
+            }
+            byte[] payload = frameBuffer.toByteArray();
+            crc.reset();
+            crc.update(payload);
+            data.writeInt(payload.length);
+            data.writeInt((int) crc.getValue());
+            data.write(payload);
+            frames++;
+        }
+    }
+
+    // Merges the intact frames written after the cursor and moves it past them. A frame still being
+    // written is left for the next call.
+    private int pull(File peerFile, String peer, Cursor cursor) throws IOException {
+        int updated = 0;
+        try (FileInputStream fis = new FileInputStream(peerFile)) {
+            DataInputStream header = new DataInputStream(fis);
+            long fileGeneration;
+            try {
+                if (header.readInt() != MAGIC) {
+                    return 0;
+                }
+                fileGeneration = header.readLong();
+            } catch (EOFException e) {
+                return 0; // being created
+            }
+            if (fileGeneration != cursor.generation) {
+                cursor.generation = fileGeneration;
+                cursor.offset = HEADER_SIZE;
+                cursor.frames = 0;
+            }
+            fis.getChannel().position(cursor.offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fis, 64 * 1024));
+            byte[] payload = new byte[4096];
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_FRAME_BYTES) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[length];
+                }
+                try {
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                DataInputStream frame = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+                long count = readVarLong(frame);
+                for (long i = 0; i < count; i++) {
+                    if (counters.merge(peer, frame.readUTF(), readVarLong(frame), readVarLong(frame))) {
+                        updated++;
+                    }
+                }
+                cursor.offset += 8 + length;
+                cursor.frames++;
+            }
+        } catch (FileNotFoundException e) {
+            // Replaced by its node between listing and opening; read it next time
+        }
+        return updated;
+    }
+
+    private static void writeVarLong(DataOutput data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = data.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,62 @@
+package sales.core;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// One completed sale as stored in the sales ledger. Money is held in integer cents.
+public record SaleRecord(long time, String laneId, List<Line> lines, long totalCents) {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    public record Line(String name, int quantity, long unitCents, long discountCents) {
+        public long amountCents() {
+            return unitCents * quantity - discountCents;
+        }
+    }
+
+    public int itemCount() {
+        int items = 0;
+        for (Line line : lines) {
+            items += line.quantity();
+        }
+        return items;
+    }
+
+    public long savingsCents() {
+        long savings = 0;
+        for (Line line : lines) {
+            savings += line.discountCents();
+        }
+        return savings;
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+
+    public String summary() {
+        return String.format("%s  %s  %d item(s)  $%s",
+            TIME.format(Instant.ofEpochMilli(time)), laneId, itemCount(), Money.format(totalCents));
+    }
+
+    public String format() {
+        StringBuilder receipt = new StringBuilder();
+        receipt.append("=== SALES RECEIPT ===\n");
+        receipt.append("Date: ").append(Receipt.DATE_TIME.format(Instant.ofEpochMilli(time))).append("\n\n");
+        for (Line line : lines) {
+            receipt.append(String.format("%s x%d - $%s", line.name(), line.quantity(), Money.format(line.amountCents())));
+            if (line.discountCents() != 0) {
+                receipt.append(" (save $").append(Money.format(line.discountCents())).append(")");
+            }
+            receipt.append("\n");
+        }
+        long savings = savingsCents();
+        if (savings != 0) {
+            receipt.append("\nYou saved: $").append(Money.format(savings));
+        }
+        receipt.append("\nTotal Amount: $").append(Money.format(totalCents));
+        return receipt.toString();
+    }
+}
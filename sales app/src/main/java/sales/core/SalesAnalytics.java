@@ -0,0 +1,218 @@
+package sales.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Sales reporting over every ledger segment. Sales and sold lines are loaded into primitive columns
+// once, then each report is aggregated with fork/join tasks that sum disjoint slices of the columns
+// into private arrays and add them together on the way back up.
+public class SalesAnalytics {
+    public static final int MAX_BASKET = 50;
+    private static final int MIN_SLICE = 1 << 16;
+
+    public record ProductTotal(String name, String category, long quantity, long revenueCents) {}
+
+    public record Report(long sales, long items, long revenueCents, List<ProductTotal> topProducts,
+                         long[] revenueByHour, List<LocalDate> days, long[] revenueByDay,
+                         Map<String, Long> revenueByCategory, long[] basketSizes) {}
+
+    private final List<String> productNames = new ArrayList<>();
+    private final Map<String, Integer> productIds = new HashMap<>();
+    private final List<LocalDate> days = new ArrayList<>();
+
+    private int saleCount;
+    private long[] saleTotal = new long[1024];
+    private int[] saleItems = new int[1024];
+    private byte[] saleHour = new byte[1024];
+    private int[] saleDay = new int[1024];
+
+    // Leaf size for the current report: a few leaves per core, so per-leaf product arrays stay few
+    private int slice;
+
+    private int lineCount;
+    private int[] lineProduct = new int[4096];
+    private int[] lineQuantity = new int[4096];
+    private long[] lineAmount = new long[4096];
+
+    public static SalesAnalytics load(File salesDirectory) throws IOException {
+        SalesAnalytics analytics = new SalesAnalytics();
+        for (File segment : SalesLedger.segments(salesDirectory)) {
+            analytics.addSegment(segment);
+        }
+        return analytics;
+    }
+
+    public int getSaleCount() {
+        return saleCount;
+    }
+
+    private void addSegment(File segment) throws IOException {
+        LocalDate day = SalesLedger.segmentDay(segment);
+        long dayStart = day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int dayIndex = days.size();
+        days.add(day);
+
+        SalesLedger.scanSegment(segment, new SalesLedger.SegmentVisitor() {
+            @Override
+            public void sale(long time, String laneId, int lines, long totalCents) {
+                if (saleCount == saleTotal.length) {
+                    int capacity = saleCount * 2;
+                    saleTotal = Arrays.copyOf(saleTotal, capacity);
+                    saleItems = Arrays.copyOf(saleItems, capacity);
+                    saleHour = Arrays.copyOf(saleHour, capacity);
+                    saleDay = Arrays.copyOf(saleDay, capacity);
+                }
+                saleTotal[saleCount] = totalCents;
+                saleHour[saleCount] = (byte) Math.min(23, Math.max(0, (time - dayStart) / 3_600_000L));
+                saleDay[saleCount] = dayIndex;
+                saleCount++;
+            }
+
+            @Override
+            public void line(String name, int quantity, long unitCents, long discountCents) {
+                if (lineCount == lineProduct.length) {
+                    int capacity = lineCount * 2;
+                    lineProduct = Arrays.copyOf(lineProduct, capacity);
+                    lineQuantity = Arrays.copyOf(lineQuantity, capacity);
+                    lineAmount = Arrays.copyOf(lineAmount, capacity);
+                }
+                Integer id = productIds.get(name);
+                if (id == null) {
+                    id = productNames.size();
+                    productIds.put(name, id);
+                    productNames.add(name);
+                }
+                lineProduct[lineCount] = id;
+                lineQuantity[lineCount] = quantity;
+                lineAmount[lineCount] = unitCents * quantity - discountCents;
+                lineCount++;
+                saleItems[saleCount - 1] += quantity;
+            }
+        });
+    }
+
+    public Report report(int topN, Map<String, String> categories) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        slice = Math.max(MIN_SLICE, Math.max(lineCount, saleCount) / (pool.getParallelism() * 4) + 1);
+        long[][] byProduct = pool.invoke(new ProductTask(0, lineCount));
+        SaleTotals totals = pool.invoke(new SaleTask(0, saleCount));
+
+        long[] quantity = byProduct[0];
+        long[] revenue = byProduct[1];
+
+        // Keep the best topN seen so far in a min-heap ordered by revenue
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingLong(id -> revenue[id]));
+        Map<String, Long> byCategory = new TreeMap<>();
+        for (int id = 0; id < productNames.size(); id++) {
+            byCategory.merge(categories.getOrDefault(productNames.get(id), "Other"), revenue[id], Long::sum);
+            if (best.size() < topN) {
+                best.add(id);
+            } else if (topN > 0 && revenue[id] > revenue[best.peek()]) {
+                best.poll();
+                best.add(id);
+            }
+        }
+        List<ProductTotal> top = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int id = best.poll();
+            String name = productNames.get(id);
+            top.add(new ProductTotal(name, categories.getOrDefault(name, "Other"), quantity[id], revenue[id]));
+        }
+        Collections.reverse(top);
+
+        return new Report(saleCount, totals.items, totals.revenue, top, totals.byHour,
+            Collections.unmodifiableList(days), totals.byDay, byCategory, totals.basketSizes);
+    }
+
+    // Quantity and revenue per product over a slice of the sold lines
+    private class ProductTask extends RecursiveTask<long[][]> {
+        private final int from;
+        private final int to;
+
+        ProductTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= slice) {
+                long[][] sums = new long[2][productNames.size()];
+                for (int i = from; i < to; i++) {
+                    sums[0][lineProduct[i]] += lineQuantity[i];
+                    sums[1][lineProduct[i]] += lineAmount[i];
+                }
+                return sums;
+            }
+            int mid = (from + to) >>> 1;
+            ProductTask left = new ProductTask(from, mid);
+            left.fork();
+            long[][] right = new ProductTask(mid, to).compute();
+            long[][] sums = left.join();
+            for (int id = 0; id < sums[0].length; id++) {
+                sums[0][id] += right[0][id];
+                sums[1][id] += right[1][id];
+            }
+            return sums;
+        }
+    }
+
+    private class SaleTotals {
+        final long[] byHour = new long[24];
+        final long[] byDay = new long[days.size()];
+        final long[] basketSizes = new long[MAX_BASKET + 1];
+        long items;
+        long revenue;
+
+        void add(SaleTotals other) {
+            for (int h = 0; h < byHour.length; h++) {
+                byHour[h] += other.byHour[h];
+            }
+            for (int d = 0; d < byDay.length; d++) {
+                byDay[d] += other.byDay[d];
+            }
+            for (int b = 0; b < basketSizes.length; b++) {
+                basketSizes[b] += other.basketSizes[b];
+            }
+            items += other.items;
+            revenue += other.revenue;
+        }
+    }
+
+    // Revenue by hour and day plus the basket size histogram over a slice of the sales
+    private class SaleTask extends RecursiveTask<SaleTotals> {
+        private final int from;
+        private final int to;
+
+        SaleTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SaleTotals compute() {
+            if (to - from <= slice) {
+                SaleTotals totals = new SaleTotals();
+                for (int i = from; i < to; i++) {
+                    totals.byHour[saleHour[i]] += saleTotal[i];
+                    totals.byDay[saleDay[i]] += saleTotal[i];
+                    totals.basketSizes[Math.min(saleItems[i], MAX_BASKET)]++;
+                    totals.items += saleItems[i];
+                    totals.revenue += saleTotal[i];
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            SaleTask left = new SaleTask(from, mid);
+            left.fork();
+            SaleTotals totals = new SaleTask(mid, to).compute();
+            totals.add(left.join());
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package sales.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+// Append-only record of every sale, one memory-mapped segment file per day (sales-YYYY-MM-DD.ledger).
+// Writes land in the page cache as soon as they are copied into the mapping, so a crashed process
+// loses nothing; the header's end offset is only advanced once a record is complete.
+// Version 2 added each line's discount; a version 1 segment for today is rewritten on open and the
+// original kept as .v1, older days are read as they are.
+public class SalesLedger {
+    private static final int MAGIC = 0x534C4447; // "SLDG"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int END_OFFSET_POS = 8;
+    private static final int COUNT_POS = 16;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private final File directory;
+    private LocalDate day;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long[] offsets = new long[1024];
+    private int count;
+    private int end;
+
+    public SalesLedger(File directory) throws IOException {
+        this.directory = directory;
+        directory.mkdirs();
+        open(LocalDate.now());
+    }
+
+    public static File segmentFile(File directory, LocalDate day) {
+        return new File(directory, "sales-" + day + ".ledger");
+    }
+
+    // Every segment in the directory, oldest first
+    public static List<File> segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("sales-") && name.endsWith(".ledger"));
+        List<File> segments = new ArrayList<>();
+        if (files != null) {
+            Arrays.sort(files);
+            segments.addAll(Arrays.asList(files));
+        }
+        return segments;
+    }
+
+    public synchronized LocalDate getDay() {
+        return day;
+    }
+
+    // Number of sales in today's segment
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized void append(Receipt receipt) throws IOException {
+        LocalDate saleDay = receipt.time().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (!saleDay.equals(day)) {
+            close();
+            open(saleDay);
+        }
+        write(receipt);
+    }
+
+    private void write(Receipt receipt) throws IOException {
+        byte[] lane = receipt.laneId().getBytes(StandardCharsets.UTF_8);
+        byte[][] names = new byte[receipt.lines().size()][];
+        int length = 8 + 2 + lane.length + 4 + 8;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = receipt.lines().get(i).name().getBytes(StandardCharsets.UTF_8);
+            length += 2 + names[i].length + lineSize(VERSION);
+        }
+        ensureCapacity(end + 4 + length);
+
+        int pos = end;
+        buffer.putInt(pos, length);
+        pos += 4;
+        buffer.putLong(pos, receipt.time().getTime());
+        pos += 8;
+        pos = putBytes(pos, lane);
+        buffer.putInt(pos, names.length);
+        pos += 4;
+        buffer.putLong(pos, receipt.totalCents());
+        pos += 8;
+        for (int i = 0; i < names.length; i++) {
+            CartLine line = receipt.lines().get(i);
+            pos = putBytes(pos, names[i]);
+            buffer.putInt(pos, line.quantity());
+            pos += 4;
+            buffer.putLong(pos, line.unitCents());
+            pos += 8;
+            buffer.putLong(pos, line.discountCents());
+            pos += 8;
+        }
+
+        // Publish the record only after all of its bytes are in place
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = end;
+        end = pos;
+        buffer.putLong(END_OFFSET_POS, end);
+        buffer.putLong(COUNT_POS, count);
+    }
+
+    public synchronized SaleRecord read(int index) {
+        return readRecord(buffer, (int) offsets[index], VERSION);
+    }
+
+    // Receives a segment's sales in order without building SaleRecord objects
+    public interface SegmentVisitor {
+        void sale(long time, String laneId, int lineCount, long totalCents);
+
+        void line(String name, int quantity, long unitCents, long discountCents);
+    }
+
+    // Reads a whole segment, e.g. for reporting over past days
+    public static void scanSegment(File file, SegmentVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a sales ledger: " + file);
+            }
+            int version = buffer.getInt(4);
+            int end = (int) buffer.getLong(END_OFFSET_POS);
+            int recordStart = HEADER_SIZE;
+            while (recordStart < end) {
+                int pos = recordStart + 4;
+                long time = buffer.getLong(pos);
+                pos += 8;
+                String lane = getString(buffer, pos);
+                pos += 2 + (buffer.getShort(pos) & 0xFFFF);
+                int lineCount = buffer.getInt(pos);
+                pos += 4;
+                visitor.sale(time, lane, lineCount, buffer.getLong(pos));
+                pos += 8;
+                for (int i = 0; i < lineCount; i++) {
+                    String name = getString(buffer, pos);
+                    pos += 2 + (buffer.getShort(pos) & 0xFFFF);
+                    visitor.line(name, buffer.getInt(pos), buffer.getLong(pos + 4),
+                        version >= 2 ? buffer.getLong(pos + 12) : 0);
+                    pos += lineSize(version);
+                }
+                recordStart += 4 + buffer.getInt(recordStart);
+            }
+        }
+    }
+
+    public static LocalDate segmentDay(File segment) {
+        String name = segment.getName();
+        return LocalDate.parse(name.substring("sales-".length(), name.length() - ".ledger".length()));
+    }
+
+    // Bytes per sold line after its name
+    private static int lineSize(int version) {
+        return version >= 2 ? 20 : 12;
+    }
+
+    private static SaleRecord readRecord(MappedByteBuffer buffer, int pos, int version) {
+        pos += 4;
+        long time = buffer.getLong(pos);
+        pos += 8;
+        String lane = getString(buffer, pos);
+        pos += 2 + (buffer.getShort(pos) & 0xFFFF);
+        int lineCount = buffer.getInt(pos);
+        pos += 4;
+        long totalCents = buffer.getLong(pos);
+        pos += 8;
+        List<SaleRecord.Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String name = getString(buffer, pos);
+            pos += 2 + (buffer.getShort(pos) & 0xFFFF);
+            int quantity = buffer.getInt(pos);
+            pos += 4;
+            long unitCents = buffer.getLong(pos);
+            pos += 8;
+            long discountCents = 0;
+            if (version >= 2) {
+                discountCents = buffer.getLong(pos);
+                pos += 8;
+            }
+            lines.add(new SaleRecord.Line(name, quantity, unitCents, discountCents));
+        }
+        return new SaleRecord(time, lane, lines, totalCents);
+    }
+
+    private int putBytes(int pos, byte[] bytes) {
+        buffer.putShort(pos, (short) bytes.length);
+        buffer.put(pos + 2, bytes);
+        return pos + 2 + bytes.length;
+    }
+
+    private static String getString(MappedByteBuffer buffer, int pos) {
+        byte[] bytes = new byte[buffer.getShort(pos) & 0xFFFF];
+        buffer.get(pos + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void open(LocalDate newDay) throws IOException {
+        File file = segmentFile(directory, newDay);
+        boolean existing = file.exists() && file.length() >= HEADER_SIZE;
+        channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+        day = newDay;
+        count = 0;
+
+        if (!existing) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(END_OFFSET_POS, HEADER_SIZE);
+            buffer.putLong(COUNT_POS, 0);
+            end = HEADER_SIZE;
+            return;
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a sales ledger: " + file);
+        }
+        if (buffer.getInt(4) < VERSION) {
+            upgrade(file, newDay);
+            return;
+        }
+        // Rebuild the record index; anything past the committed end is an unfinished append
+        end = (int) buffer.getLong(END_OFFSET_POS);
+        for (int pos = HEADER_SIZE; pos < end; pos += 4 + buffer.getInt(pos)) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = pos;
+        }
+    }
+
+    // Moves an older segment aside and writes its sales again in the current format
+    private void upgrade(File file, LocalDate newDay) throws IOException {
+        int version = buffer.getInt(4);
+        List<SaleRecord> sales = new ArrayList<>();
+        int oldEnd = (int) buffer.getLong(END_OFFSET_POS);
+        for (int pos = HEADER_SIZE; pos < oldEnd; pos += 4 + buffer.getInt(pos)) {
+            sales.add(readRecord(buffer, pos, version));
+        }
+        channel.close();
+        channel = null;
+        File old = new File(file.getPath() + ".v" + version);
+        if (!file.renameTo(old)) {
+            throw new IOException("Could not move " + file + " aside for upgrading");
+        }
+        open(newDay);
+        for (SaleRecord sale : sales) {
+            List<CartLine> lines = new ArrayList<>(sale.lines().size());
+            for (SaleRecord.Line line : sale.lines()) {
+                lines.add(new CartLine(line.name(), line.quantity(), line.unitCents(), line.discountCents(), null));
+            }
+            write(new Receipt(sale.laneId(), new Date(sale.time()), lines, sale.totalCents()));
+        }
+        buffer.force();
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+}
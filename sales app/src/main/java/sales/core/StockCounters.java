@@ -0,0 +1,155 @@
+package sales.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Stock across stores as a PN-counter per product. Every node (store or warehouse) owns an
+// increments and a decrements total per product and only ever raises its own; its stock is the
+// difference and the network's stock is the sum over nodes. Merging keeps the larger of each total,
+// so replicas agree once they have seen the same deltas, in any order and however often repeated.
+public class StockCounters {
+    public record Entry(String name, long increments, long decrements) {}
+
+    private final String localNode;
+    private final List<String> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    // name -> increments and decrements per node, [inc0, dec0, inc1, dec1, ...]
+    private final Map<String, long[]> counters = new HashMap<>();
+    // Products whose local totals changed since the last drainChanges()
+    private final Set<String> changed = new LinkedHashSet<>();
+    // Bumped whenever any total changes, so a view can poll for something new
+    private long version;
+
+    public StockCounters(String localNode) {
+        this.localNode = localNode;
+        indexOf(localNode);
+    }
+
+    public String getLocalNode() {
+        return localNode;
+    }
+
+    public synchronized List<String> getNodes() {
+        return new ArrayList<>(nodes);
+    }
+
+    public synchronized Set<String> names() {
+        return new LinkedHashSet<>(counters.keySet());
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // Stock over every node
+    public synchronized long getStock(String name) {
+        long[] counts = counters.get(name);
+        long stock = 0;
+        if (counts != null) {
+            for (int i = 0; i < counts.length; i += 2) {
+                stock += counts[i] - counts[i + 1];
+            }
+        }
+        return stock;
+    }
+
+    public synchronized long getStock(String name, String node) {
+        long[] counts = counters.get(name);
+        Integer index = nodeIndex.get(node);
+        if (counts == null || index == null || index * 2 >= counts.length) {
+            return 0;
+        }
+        return counts[index * 2] - counts[index * 2 + 1];
+    }
+
+    // Moves this node's stock of the product to the given level by raising one of its totals
+    public synchronized void setLocal(String name, long stock) {
+        long[] counts = counts(name, 0);
+        long delta = stock - (counts[0] - counts[1]);
+        if (delta > 0) {
+            counts[0] += delta;
+        } else if (delta < 0) {
+            counts[1] -= delta;
+        } else {
+            return;
+        }
+        changed.add(name);
+        version++;
+    }
+
+    // Applies a node's totals for one product. Returns true if that told this replica anything new.
+    public synchronized boolean merge(String node, String name, long increments, long decrements) {
+        int index = indexOf(node);
+        long[] counts = counts(name, index);
+        boolean updated = false;
+        if (increments > counts[index * 2]) {
+            counts[index * 2] = increments;
+            updated = true;
+        }
+        if (decrements > counts[index * 2 + 1]) {
+            counts[index * 2 + 1] = decrements;
+            updated = true;
+        }
+        if (updated) {
+            version++;
+        }
+        return updated;
+    }
+
+    // This node's totals for every product changed since the last call
+    public synchronized List<Entry> drainChanges() {
+        List<Entry> entries = new ArrayList<>(changed.size());
+        for (String name : changed) {
+            long[] counts = counters.get(name);
+            entries.add(new Entry(name, counts[0], counts[1]));
+        }
+        changed.clear();
+        return entries;
+    }
+
+    // This node's totals for every product it has ever touched
+    public synchronized List<Entry> localState() {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, long[]> product : counters.entrySet()) {
+            long[] counts = product.getValue();
+            if (counts[0] != 0 || counts[1] != 0) {
+                entries.add(new Entry(product.getKey(), counts[0], counts[1]));
+            }
+        }
+        return entries;
+    }
+
+    private int indexOf(String node) {
+        Integer index = nodeIndex.get(node);
+        if (index == null) {
+            index = nodes.size();
+            nodes.add(node);
+            nodeIndex.put(node, index);
+        }
+        return index;
+    }
+
+    // The product's totals with room for the given node; arrays only grow when a product first
+    // hears from another node
+    private long[] counts(String name, int index) {
+        long[] counts = counters.get(name);
+        if (counts == null) {
+            counts = new long[(index + 1) * 2];
+            counters.put(name, counts);
+        } else if (counts.length <= index * 2) {
+            long[] grown = new long[(index + 1) * 2];
+            System.arraycopy(counts, 0, grown, 0, counts.length);
+            counts = grown;
+            counters.put(name, counts);
+        }
+        return counts;
+    }
+}
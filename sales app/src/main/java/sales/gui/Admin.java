@@ -0,0 +1,755 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import sales.core.BarcodeIndex;
+import sales.core.CatalogBatch;
+import sales.core.CatalogEvent;
+import sales.core.CatalogEvents;
+import sales.core.CatalogTransfer;
+import sales.core.InventoryEngine;
+import sales.core.Money;
+import sales.core.PersistenceService;
+import sales.core.PricingEngine;
+import sales.core.Product;
+import sales.core.ProductSearchIndex;
+import sales.core.PromotionStore;
+import sales.core.ReorderQueue;
+import sales.core.ReplicationService;
+
+public class Admin extends JPanel {
+    private JTextField productNameField, productPriceField, quantityField, barcodeField, reorderLevelField;
+    // On-hand stock of the selected product when its fields were filled, so an edit changes it by
+    // what was typed and keeps any sales made meanwhile
+    private int shownOnHand;
+    private JButton addProductBtn;
+    private JList<Product> productList;
+    private ProductListModel productListModel;
+    private JComboBox<String> categoryComboBox;
+    private Map<String, Double> products;
+    private InventoryEngine inventory;
+    private Map<String, String> categories;
+    private PersistenceService persistence;
+    private ProductSearchIndex searchIndex;
+    private CatalogEvents events;
+    private Runnable logout;
+    private BarcodeIndex barcodes;
+    private ReorderQueue reorderQueue;
+    private PricingEngine pricing;
+    private PromotionStore promotionStore;
+    private JFrame parentFrame;
+    private JTextField searchField;
+    private ProductSearch productSearch;
+    private JButton searchBtn;
+    private JButton editProductBtn;
+    private JButton deleteProductBtn;
+    private JButton bulkEditBtn;
+    private JButton undoBatchBtn;
+    // Puts back the last bulk edit, null once used
+    private CatalogBatch lastUndo;
+    private JButton importBtn;
+    private JButton exportBtn;
+    // Null when this store does not replicate stock
+    private ReplicationService replication;
+    private JProgressBar transferProgress;
+    private JLabel transferStatus;
+
+    public Admin(Map<String, Double> products, InventoryEngine inventory, Map<String, String> categories,
+                 PersistenceService persistence, ProductSearchIndex searchIndex, BarcodeIndex barcodes,
+                 ReorderQueue reorderQueue, PricingEngine pricing, PromotionStore promotionStore,
+                 ReplicationService replication, CatalogEvents events, Runnable logout, JFrame parentFrame) {
+        this.products = products;
+        this.inventory = inventory;
+        this.categories = categories;
+        this.persistence = persistence;
+        this.searchIndex = searchIndex;
+        this.barcodes = barcodes;
+        this.reorderQueue = reorderQueue;
+        this.pricing = pricing;
+        this.promotionStore = promotionStore;
+        this.replication = replication;
+        this.events = events;
+        this.logout = logout;
+        this.parentFrame = parentFrame;
+        initializePanel();
+    }
+
+    private void initializePanel() {
+        this.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(), "Admin Panel", 
+            TitledBorder.CENTER, TitledBorder.TOP));
+        this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+
+        // Add logout button at the top
+        JPanel logoutPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton logoutButton = new JButton("Logout");
+        logoutButton.addActionListener(e -> logout.run());
+        logoutPanel.add(new PersistenceStatusLabel(persistence));
+        logoutPanel.add(logoutButton);
+        this.add(logoutPanel);
+
+        // Add Search Panel
+        JPanel searchPanel = new JPanel();
+        searchField = new JTextField(20);
+        searchBtn = new JButton("Search");
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchBtn);
+        this.add(searchPanel);
+
+        // Product Input Panel
+        JPanel inputPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 5, 5, 5);
+
+        // Product Name
+        gbc.gridx = 0; gbc.gridy = 0;
+        inputPanel.add(new JLabel("Product Name:"), gbc);
+        productNameField = new JTextField(15);
+        gbc.gridx = 1;
+        inputPanel.add(productNameField, gbc);
+
+        // Product Price
+        gbc.gridx = 0; gbc.gridy = 1;
+        inputPanel.add(new JLabel("Product Price:"), gbc);
+        productPriceField = new JTextField(15);
+        gbc.gridx = 1;
+        inputPanel.add(productPriceField, gbc);
+
+        // Initial Quantity
+        gbc.gridx = 0; gbc.gridy = 2;
+        inputPanel.add(new JLabel("Initial Quantity:"), gbc);
+        quantityField = new JTextField(15);
+        gbc.gridx = 1;
+        inputPanel.add(quantityField, gbc);
+
+        // Category
+        gbc.gridx = 0; gbc.gridy = 3;
+        inputPanel.add(new JLabel("Category:"), gbc);
+        // Pick one in use or type a new one
+        categoryComboBox = new JComboBox<>();
+        categoryComboBox.setEditable(true);
+        loadCategoryChoices();
+        gbc.gridx = 1;
+        inputPanel.add(categoryComboBox, gbc);
+
+        // Barcode (EAN/UPC or numeric SKU), optional
+        gbc.gridx = 0; gbc.gridy = 4;
+        inputPanel.add(new JLabel("Barcode:"), gbc);
+        barcodeField = new JTextField(15);
+        gbc.gridx = 1;
+        inputPanel.add(barcodeField, gbc);
+
+        // Reorder level, blank for the store default
+        gbc.gridx = 0; gbc.gridy = 5;
+        inputPanel.add(new JLabel("Reorder At:"), gbc);
+        reorderLevelField = new JTextField(15);
+        reorderLevelField.setToolTipText("Blank uses the default of " + reorderQueue.getDefaultLevel());
+        gbc.gridx = 1;
+        inputPanel.add(reorderLevelField, gbc);
+
+        // Initialize buttons first
+        addProductBtn = new JButton("Add Product");
+        editProductBtn = new JButton("Edit Selected");
+        deleteProductBtn = new JButton("Delete Selected");
+        bulkEditBtn = new JButton("Bulk Edit Selected...");
+        undoBatchBtn = new JButton("Undo Bulk Edit");
+        undoBatchBtn.setEnabled(false);
+
+        // Add buttons to panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.add(addProductBtn);
+        buttonPanel.add(editProductBtn);
+        buttonPanel.add(deleteProductBtn);
+        JPanel batchPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        batchPanel.add(bulkEditBtn);
+        batchPanel.add(undoBatchBtn);
+        
+        gbc.gridx = 0; gbc.gridy = 6;
+        gbc.gridwidth = 2;
+        inputPanel.add(buttonPanel, gbc);
+        gbc.gridy = 7;
+        inputPanel.add(batchPanel, gbc);
+
+        this.add(inputPanel);
+
+        // Bulk import/export
+        JPanel transferPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        importBtn = new JButton("Import...");
+        exportBtn = new JButton("Export...");
+        transferProgress = new JProgressBar(0, 100);
+        transferProgress.setVisible(false);
+        transferStatus = new JLabel();
+        transferPanel.add(importBtn);
+        transferPanel.add(exportBtn);
+        transferPanel.add(transferProgress);
+        transferPanel.add(transferStatus);
+        if (replication != null) {
+            JButton networkStockBtn = new JButton("Network Stock...");
+            networkStockBtn.addActionListener(e -> NetworkStockPanel.show(parentFrame, replication));
+            transferPanel.add(networkStockBtn);
+        }
+        this.add(transferPanel);
+
+        // Product List
+        productListModel = new ProductListModel(products, inventory, categories);
+        productList = new ProductList(productListModel);
+        productSearch = new ProductSearch(searchField, productListModel, searchIndex, products);
+        new CatalogUpdates(events, productSearch::catalogChanged);
+        searchPanel.add(new CategoryFilter(searchIndex, productSearch));
+        productList.setBorder(BorderFactory.createTitledBorder("Product Inventory"));
+        JScrollPane scrollPane = new JScrollPane(productList);
+        scrollPane.setPreferredSize(new Dimension(300, 300));
+        this.add(scrollPane);
+
+        this.add(new LowStockPanel(reorderQueue, parentFrame));
+        this.add(new PromotionsPanel(pricing, promotionStore, parentFrame));
+
+        // Add all action listeners
+        addActionListeners();
+    }
+
+    private void addActionListeners() {
+        addProductBtn.addActionListener(e -> addProduct());
+        editProductBtn.addActionListener(e -> editSelectedProduct());
+        deleteProductBtn.addActionListener(e -> deleteSelectedProduct());
+        bulkEditBtn.addActionListener(e -> bulkEditSelected());
+        undoBatchBtn.addActionListener(e -> undoBulkEdit());
+        searchBtn.addActionListener(e -> searchProduct());
+        importBtn.addActionListener(e -> importCatalog());
+        exportBtn.addActionListener(e -> exportCatalog());
+        
+        // Hidden diagnostics view
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("ctrl shift D"), "diagnostics");
+        getActionMap().put("diagnostics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                DiagnosticsPanel.show(parentFrame);
+            }
+        });
+
+        productList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                Product selected = productList.getSelectedValue();
+                if (selected != null) {
+                    fillFieldsWithSelectedProduct(selected);
+                }
+            }
+        });
+    }
+
+    private void addProduct() {
+        try {
+            String name = productNameField.getText();
+            double price = Double.parseDouble(productPriceField.getText());
+            int quantity = Integer.parseInt(quantityField.getText());
+            String category = readCategory();
+
+            if (name.isEmpty()) {
+                JOptionPane.showMessageDialog(parentFrame, "Please enter a product name!");
+                return;
+            }
+            long barcode = readBarcode(name, name);
+            if (barcode < 0) {
+                return;
+            }
+            int reorderLevel = readReorderLevel();
+
+            products.put(name, price);
+            inventory.set(name, quantity);
+            categories.put(name, category);
+            searchIndex.add(name, category);
+            events.publish(CatalogEvent.Type.INSERT, name);
+
+            // Queue the new product for saving
+            persistence.putProduct(name, price, quantity);
+            persistence.setCategory(name, category);
+            if (barcodes.barcodeOf(name) != barcode) {
+                barcodes.put(name, barcode);
+                persistence.setBarcode(name, barcode);
+            }
+            saveReorderLevel(name, reorderLevel, false);
+
+            // Clear input fields
+            productNameField.setText("");
+            productPriceField.setText("");
+            quantityField.setText("");
+            barcodeField.setText("");
+            reorderLevelField.setText("");
+            loadCategoryChoices();
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(parentFrame, "Please enter valid numbers for price, quantity and reorder level!");
+        }
+    }
+
+    // The usual categories plus every one in use, keeping whatever is typed or selected
+    private void loadCategoryChoices() {
+        Object current = categoryComboBox.getSelectedItem();
+        Set<String> choices = new TreeSet<>(List.of("Electronics", "Food", "Clothing",
+            CatalogTransfer.DEFAULT_CATEGORY));
+        choices.addAll(searchIndex.categoryCounts().keySet());
+        categoryComboBox.setModel(new DefaultComboBoxModel<>(choices.toArray(new String[0])));
+        categoryComboBox.setSelectedItem(current);
+    }
+
+    // The category typed or picked, the default one when left blank
+    private String readCategory() {
+        Object item = categoryComboBox.isEditable() ? categoryComboBox.getEditor().getItem() : categoryComboBox.getSelectedItem();
+        String category = item == null ? "" : item.toString().trim();
+        return category.isEmpty() ? CatalogTransfer.DEFAULT_CATEGORY : category;
+    }
+
+    private void searchProduct() {
+        productSearch.runNow();
+    }
+
+    // The reorder level typed for the product being saved, -1 for the default
+    private int readReorderLevel() {
+        String text = reorderLevelField.getText().trim();
+        if (text.isEmpty()) {
+            return -1;
+        }
+        int level = Integer.parseInt(text);
+        if (level < 0) {
+            throw new NumberFormatException("negative reorder level");
+        }
+        return level;
+    }
+
+    private void saveReorderLevel(String name, int level, boolean force) {
+        int current = reorderQueue.hasOwnLevel(name) ? reorderQueue.getReorderLevel(name) : -1;
+        if (force || level != current) {
+            reorderQueue.setReorderLevel(name, level);
+            persistence.setReorderLevel(name, level);
+        }
+    }
+
+    // The barcode typed for the product being saved, 0 if none, or -1 after telling the user why it
+    // cannot be used
+    private long readBarcode(String oldName, String newName) {
+        String text = barcodeField.getText();
+        if (text.isBlank()) {
+            return 0;
+        }
+        long barcode = BarcodeIndex.parse(text);
+        if (barcode == 0) {
+            JOptionPane.showMessageDialog(parentFrame, "Please enter a barcode of up to 18 digits!");
+            return -1;
+        }
+        String owner = barcodes.lookup(barcode);
+        if (owner != null && !owner.equals(oldName) && !owner.equals(newName)) {
+            JOptionPane.showMessageDialog(parentFrame, "Barcode " + text.trim() + " already belongs to " + owner + "!");
+            return -1;
+        }
+        return barcode;
+    }
+
+    private void fillFieldsWithSelectedProduct(Product selected) {
+        productNameField.setText(selected.name());
+        productPriceField.setText(String.format("%.2f", selected.price()));
+        // On hand rather than available: units in open carts are still in the store
+        shownOnHand = inventory.getOnHand(selected.name());
+        quantityField.setText(String.valueOf(shownOnHand));
+        categoryComboBox.setSelectedItem(selected.category());
+        barcodeField.setText(BarcodeIndex.format(barcodes.barcodeOf(selected.name())));
+        reorderLevelField.setText(reorderQueue.hasOwnLevel(selected.name())
+            ? String.valueOf(reorderQueue.getReorderLevel(selected.name())) : "");
+    }
+
+    private void editSelectedProduct() {
+        Product selected = productList.getSelectedValue();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(parentFrame, "Please select a product to edit!");
+            return;
+        }
+
+        try {
+            String oldName = selected.name();
+            String newName = productNameField.getText();
+            double newPrice = Double.parseDouble(productPriceField.getText());
+            int newQuantity = Integer.parseInt(quantityField.getText());
+            String newCategory = readCategory();
+            long newBarcode = readBarcode(oldName, newName);
+            if (newBarcode < 0) {
+                return;
+            }
+            long oldBarcode = barcodes.barcodeOf(oldName);
+            int newReorderLevel = readReorderLevel();
+            boolean renamed = !oldName.equals(newName);
+            // Carts hold their units by name, so a rename would orphan them
+            int reserved = inventory.getReserved(oldName);
+            if (renamed && reserved > 0) {
+                JOptionPane.showMessageDialog(parentFrame, reserved + " of " + oldName
+                    + " are in open carts. Rename it once they are checked out or removed.");
+                return;
+            }
+            if (newQuantity < reserved) {
+                JOptionPane.showMessageDialog(parentFrame, "Quantity cannot go below the " + reserved + " of "
+                    + oldName + " in open carts!");
+                return;
+            }
+
+            // Remove the old name only on a rename. Checkout lanes read these maps, and an in-place
+            // edit must not leave a moment where the product is missing.
+            if (renamed) {
+                products.remove(oldName);
+                categories.remove(oldName);
+                barcodes.remove(oldName);
+            }
+
+            // Add updated product, changing stock by the amount typed
+            products.put(newName, newPrice);
+            int stockChange = 0;
+            int newOnHand = 0;
+            if (renamed) {
+                newOnHand = Math.max(0, inventory.getOnHand(oldName) + newQuantity - shownOnHand);
+                inventory.remove(oldName);
+                inventory.set(newName, newOnHand);
+            } else if (newQuantity != shownOnHand) {
+                stockChange = inventory.adjust(newName, newQuantity - shownOnHand);
+            }
+            shownOnHand = inventory.getOnHand(newName);
+            categories.put(newName, newCategory);
+            searchIndex.rename(oldName, newName);
+            searchIndex.setCategory(newName, newCategory);
+            barcodes.put(newName, newBarcode);
+
+            // Update the edited row in place; other views hear of it from the events
+            productListModel.rename(oldName, newName);
+            if (renamed) {
+                events.publish(CatalogEvent.Type.DELETE, oldName);
+                events.publish(CatalogEvent.Type.INSERT, newName);
+            } else {
+                events.publish(CatalogEvent.Type.PRICE, newName);
+                if (!newCategory.equals(selected.category())) {
+                    events.publish(CatalogEvent.Type.CATEGORY, newName);
+                }
+            }
+
+            // Queue the edit for saving. Stock is saved as a change, as sales are, so one saved
+            // meanwhile is not overwritten.
+            if (renamed) {
+                persistence.deleteProduct(oldName);
+                persistence.putProduct(newName, newPrice, newOnHand);
+            } else {
+                persistence.setPrice(newName, newPrice);
+                if (stockChange != 0) {
+                    persistence.adjustStock(newName, stockChange);
+                }
+            }
+            if (renamed || !newCategory.equals(selected.category())) {
+                persistence.setCategory(newName, newCategory);
+            }
+            if (renamed || newBarcode != oldBarcode) {
+                persistence.setBarcode(newName, newBarcode);
+            }
+            saveReorderLevel(newName, newReorderLevel, renamed);
+
+            JOptionPane.showMessageDialog(parentFrame, "Product updated successfully!");
+            
+            // Clear input fields
+            productNameField.setText("");
+            productPriceField.setText("");
+            quantityField.setText("");
+            barcodeField.setText("");
+            reorderLevelField.setText("");
+            loadCategoryChoices();
+            categoryComboBox.setSelectedIndex(0);
+            
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(parentFrame, "Please enter valid numbers for price, quantity and reorder level!");
+        }
+    }
+
+    private void deleteSelectedProduct() {
+        Product selected = productList.getSelectedValue();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(parentFrame, "Please select a product to delete!");
+            return;
+        }
+
+        int confirm = JOptionPane.showConfirmDialog(parentFrame, 
+            "Are you sure you want to delete this product?", 
+            "Confirm Deletion", 
+            JOptionPane.YES_NO_OPTION);
+            
+        if (confirm == JOptionPane.YES_OPTION) {
+            String productName = selected.name();
+            products.remove(productName);
+            inventory.remove(productName);
+            categories.remove(productName);
+            searchIndex.remove(productName);
+            barcodes.remove(productName);
+            events.publish(CatalogEvent.Type.DELETE, productName);
+            
+            // Queue the deletion for saving
+            persistence.deleteProduct(productName);
+            
+            // Clear input fields
+            productNameField.setText("");
+            productPriceField.setText("");
+            quantityField.setText("");
+            barcodeField.setText("");
+            reorderLevelField.setText("");
+            categoryComboBox.setSelectedIndex(0);
+            
+            JOptionPane.showMessageDialog(parentFrame, "Product deleted successfully!");
+        }
+    }
+
+    // One price change, restock and category move for every selected product, applied together
+    private void bulkEditSelected() {
+        List<Product> selected = productList.getSelectedValuesList();
+        if (selected.isEmpty()) {
+            JOptionPane.showMessageDialog(parentFrame, "Please select the products to edit!");
+            return;
+        }
+        JTextField percentField = new JTextField(6);
+        JTextField restockField = new JTextField(6);
+        JComboBox<String> categoryBox = new JComboBox<>();
+        categoryBox.setEditable(true);
+        categoryBox.addItem("");
+        for (int i = 0; i < categoryComboBox.getItemCount(); i++) {
+            categoryBox.addItem(categoryComboBox.getItemAt(i));
+        }
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 5, 5));
+        form.add(new JLabel("Change price by (%):"));
+        form.add(percentField);
+        form.add(new JLabel("Restock (units):"));
+        form.add(restockField);
+        form.add(new JLabel("Move to category:"));
+        form.add(categoryBox);
+        if (JOptionPane.showConfirmDialog(parentFrame, form, "Bulk Edit " + selected.size() + " Products",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        double percent;
+        int restock;
+        try {
+            percent = percentField.getText().isBlank() ? 0 : Double.parseDouble(percentField.getText().trim());
+            restock = restockField.getText().isBlank() ? 0 : Integer.parseInt(restockField.getText().trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(parentFrame, "Please enter valid numbers for the price change and restock!");
+            return;
+        }
+        if (percent <= -100) {
+            JOptionPane.showMessageDialog(parentFrame, "A price cannot go down by 100% or more!");
+            return;
+        }
+        Object item = categoryBox.getEditor().getItem();
+        String category = item == null || item.toString().isBlank() ? null : item.toString().trim();
+
+        // Staged only; nothing changes until the whole batch commits
+        CatalogBatch batch = new CatalogBatch();
+        for (Product product : selected) {
+            if (percent != 0) {
+                batch.setPrice(product.name(), Money.toCents(product.price() * (100 + percent) / 100) / 100.0);
+            }
+            if (restock != 0) {
+                batch.restock(product.name(), restock);
+            }
+            if (category != null) {
+                batch.setCategory(product.name(), category);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        lastUndo = commitBatch(batch);
+        undoBatchBtn.setEnabled(!lastUndo.isEmpty());
+        transferStatus.setText("Updated " + selected.size() + " products");
+    }
+
+    private void undoBulkEdit() {
+        if (lastUndo == null) {
+            return;
+        }
+        int count = lastUndo.size();
+        commitBatch(lastUndo);
+        lastUndo = null;
+        undoBatchBtn.setEnabled(false);
+        transferStatus.setText("Undid the bulk edit of " + count + " products");
+    }
+
+    // Commits the batch with one queued mutation, returning its undo. The views repaint every
+    // product it touched in a single update.
+    private CatalogBatch commitBatch(CatalogBatch batch) {
+        CatalogBatch undo = batch.commit(products, inventory, categories, searchIndex, persistence);
+        boolean moved = false;
+        for (CatalogBatch.Edit edit : batch.getEdits()) {
+            if (edit.price() >= 0) {
+                events.publish(CatalogEvent.Type.PRICE, edit.name());
+            }
+            if (edit.category() != null) {
+                events.publish(CatalogEvent.Type.CATEGORY, edit.name());
+                moved = true;
+            }
+        }
+        if (moved) {
+            // Products may have left or joined the category being shown
+            loadCategoryChoices();
+            searchProduct();
+        }
+        return undo;
+    }
+
+    private JFileChooser catalogFileChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Catalog files (CSV, TSV)", "csv", "tsv"));
+        return chooser;
+    }
+
+    private void setTransferRunning(boolean running, String status) {
+        importBtn.setEnabled(!running);
+        exportBtn.setEnabled(!running);
+        transferProgress.setValue(0);
+        transferProgress.setVisible(running);
+        transferStatus.setText(status);
+    }
+
+    // Parses and validates the file off the EDT, then applies it in one go
+    private void importCatalog() {
+        JFileChooser chooser = catalogFileChooser();
+        if (chooser.showOpenDialog(parentFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        setTransferRunning(true, "Reading " + file.getName() + "...");
+
+        SwingWorker<CatalogTransfer.ImportResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected CatalogTransfer.ImportResult doInBackground() throws Exception {
+                return CatalogTransfer.read(file, this::setProgress);
+            }
+
+            @Override
+            protected void done() {
+                setTransferRunning(false, "");
+                try {
+                    applyImport(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parentFrame, "Error reading catalog file!");
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                transferProgress.setValue((Integer) e.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    private void applyImport(CatalogTransfer.ImportResult result) {
+        List<String> errors = result.errors();
+        if (!errors.isEmpty()) {
+            StringBuilder message = new StringBuilder("Nothing was imported. Please fix these lines:\n");
+            for (int i = 0; i < Math.min(errors.size(), 20); i++) {
+                message.append('\n').append(errors.get(i));
+            }
+            if (errors.size() > 20) {
+                message.append("\n...");
+            }
+            JOptionPane.showMessageDialog(parentFrame, message.toString());
+            return;
+        }
+
+        // New products are queued before they exist, so no sale of one can be journaled ahead of
+        // it. Stock of products already there is applied and saved as a change, as sales are, so a
+        // sale made meanwhile is not overwritten.
+        List<Product> added = new ArrayList<>();
+        Set<String> addedNames = new HashSet<>();
+        for (Product product : result.rows()) {
+            if (!products.containsKey(product.name()) && addedNames.add(product.name())) {
+                added.add(product);
+            }
+        }
+        if (!added.isEmpty()) {
+            persistence.putProducts(added);
+        }
+        List<CatalogBatch.Edit> edits = new ArrayList<>();
+        for (Product product : result.rows()) {
+            Double oldPrice = products.put(product.name(), product.price());
+            searchIndex.add(product.name(), product.category());
+            int stockChange = 0;
+            if (oldPrice == null) {
+                inventory.set(product.name(), product.stock());
+            } else {
+                stockChange = inventory.adjust(product.name(), product.stock() - inventory.getOnHand(product.name()));
+            }
+            String oldCategory = categories.put(product.name(), product.category());
+            if (product.barcode() != 0) {
+                barcodes.put(product.name(), product.barcode());
+                if (oldPrice != null) {
+                    persistence.setBarcode(product.name(), product.barcode());
+                }
+            }
+            if (oldPrice == null) {
+                events.publish(CatalogEvent.Type.INSERT, product.name());
+            } else {
+                edits.add(new CatalogBatch.Edit(product.name(), product.price(), stockChange, product.category()));
+                if (oldPrice != product.price()) {
+                    events.publish(CatalogEvent.Type.PRICE, product.name());
+                }
+                if (!product.category().equals(oldCategory)) {
+                    events.publish(CatalogEvent.Type.CATEGORY, product.name());
+                }
+            }
+        }
+        if (!edits.isEmpty()) {
+            persistence.editProducts(edits);
+        }
+        loadCategoryChoices();
+        searchProduct();
+        transferStatus.setText("Imported " + result.rows().size() + " products");
+    }
+
+    private void exportCatalog() {
+        JFileChooser chooser = catalogFileChooser();
+        if (chooser.showSaveDialog(parentFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File chosen = chooser.getSelectedFile();
+        String lowerName = chosen.getName().toLowerCase();
+        File file = lowerName.endsWith(".csv") || lowerName.endsWith(".tsv") ? chosen : new File(chosen.getPath() + ".csv");
+        Map<String, String> categorySnapshot = new HashMap<>(categories);
+        Map<String, Long> barcodeSnapshot = barcodes.snapshot();
+        setTransferRunning(true, "Writing " + file.getName() + "...");
+        transferProgress.setIndeterminate(true);
+
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return CatalogTransfer.write(file, products, inventory, categorySnapshot, barcodeSnapshot);
+            }
+
+            @Override
+            protected void done() {
+                transferProgress.setIndeterminate(false);
+                setTransferRunning(false, "");
+                try {
+                    transferStatus.setText("Exported " + get() + " products");
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parentFrame, "Error exporting catalog!");
+                }
+            }
+        }.execute();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,334 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.Map;
+import java.util.List;
+import java.io.UncheckedIOException;
+import sales.core.BarcodeIndex;
+import sales.core.CartLine;
+import sales.core.CatalogEvents;
+import sales.core.CheckoutService;
+import sales.core.CheckoutSession;
+import sales.core.InventoryEngine;
+import sales.core.LatencyHistogram;
+import sales.core.Metrics;
+import sales.core.Money;
+import sales.core.PersistenceService;
+import sales.core.Product;
+import sales.core.ProductSearchIndex;
+import sales.core.Receipt;
+import sales.core.ReceiptSpooler;
+import sales.core.SaleRecord;
+
+public class Cashier extends JPanel {
+    private JTextField searchField;
+    private ProductSearch productSearch;
+    private JButton searchBtn, addToCartBtn, removeFromCartBtn, clearCartBtn, checkoutBtn;
+    private JList<Product> productList;
+    private JList<CartLine> cartList;
+    private ProductListModel productListModel;
+    private DefaultListModel<CartLine> cartListModel;
+    private Map<String, Double> products;
+    private InventoryEngine inventory;
+    private Map<String, String> categories;
+    private PersistenceService persistence;
+    private ProductSearchIndex searchIndex;
+    private CatalogEvents events;
+    private Runnable logout;
+    private BarcodeIndex barcodes;
+    private CheckoutSession session;
+    private ReceiptSpooler receiptSpooler;
+    private int shownReprices;
+    private JLabel totalLabel;
+    private JLabel saleStatus;
+    private JSpinner quantitySpinner;
+    private JCheckBox scanModeBox;
+    private JTextField scanField;
+    private JLabel scanStatus;
+    private final LatencyHistogram scanLatency = Metrics.histogram("scan");
+    private JList<SaleRecord> salesHistoryList;
+    private SalesHistoryModel salesHistoryModel;
+    private JTextArea receiptArea;
+    private JFrame parentFrame;
+
+    public Cashier(Map<String, Double> products, InventoryEngine inventory, Map<String, String> categories,
+                  PersistenceService persistence, ProductSearchIndex searchIndex, BarcodeIndex barcodes,
+                  CheckoutService checkoutService, ReceiptSpooler receiptSpooler, CatalogEvents events,
+                  Runnable logout, JFrame parentFrame) {
+        this.products = products;
+        this.inventory = inventory;
+        this.categories = categories;
+        this.persistence = persistence;
+        this.searchIndex = searchIndex;
+        this.barcodes = barcodes;
+        this.receiptSpooler = receiptSpooler;
+        this.events = events;
+        this.logout = logout;
+        this.parentFrame = parentFrame;
+        this.session = checkoutService.openSession("lane-1");
+        this.salesHistoryModel = new SalesHistoryModel(checkoutService.getSalesLedger());
+        initializePanel();
+    }
+
+    private void initializePanel() {
+        this.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(), "Cashier Panel", 
+            TitledBorder.CENTER, TitledBorder.TOP));
+        
+        // Change to BorderLayout for main panel
+        this.setLayout(new BorderLayout());
+
+        // Create left panel for existing components
+        JPanel leftPanel = new JPanel();
+        leftPanel.setLayout(new BoxLayout(leftPanel, BoxLayout.Y_AXIS));
+
+        // Add logout button at the top
+        JPanel logoutPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton logoutButton = new JButton("Logout");
+        logoutButton.addActionListener(e -> logout.run());
+        logoutPanel.add(new PersistenceStatusLabel(persistence));
+        logoutPanel.add(logoutButton);
+        leftPanel.add(logoutPanel);
+
+        // Search Panel
+        JPanel searchPanel = new JPanel();
+        searchField = new JTextField(20);
+        searchBtn = new JButton("Search");
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(searchField);
+        searchPanel.add(searchBtn);
+        leftPanel.add(searchPanel);
+
+        // Scan mode: a barcode scanner types the code and Enter into this field
+        JPanel scanPanel = new JPanel();
+        scanModeBox = new JCheckBox("Scan mode");
+        scanField = new JTextField(16);
+        scanField.setEnabled(false);
+        scanStatus = new JLabel(" ");
+        scanPanel.add(scanModeBox);
+        scanPanel.add(scanField);
+        scanPanel.add(scanStatus);
+        leftPanel.add(scanPanel);
+
+        // Cart Controls
+        JPanel cartControlPanel = new JPanel();
+        addToCartBtn = new JButton("Add to Cart");
+        removeFromCartBtn = new JButton("Remove Selected");
+        clearCartBtn = new JButton("Clear Cart");
+        quantitySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 100, 1));
+        cartControlPanel.add(new JLabel("Quantity:"));
+        cartControlPanel.add(quantitySpinner);
+        cartControlPanel.add(addToCartBtn);
+        cartControlPanel.add(removeFromCartBtn);
+        cartControlPanel.add(clearCartBtn);
+        leftPanel.add(cartControlPanel);
+
+        // Cart
+        cartListModel = new DefaultListModel<>();
+        cartList = new JList<>(cartListModel);
+        cartList.setBorder(BorderFactory.createTitledBorder("Shopping Cart"));
+        leftPanel.add(new JScrollPane(cartList));
+
+        // Total and Checkout
+        JPanel checkoutPanel = new JPanel();
+        totalLabel = new JLabel("Total: $0.00");
+        checkoutBtn = new JButton("Checkout");
+        saleStatus = new JLabel(" ");
+        checkoutPanel.add(totalLabel);
+        checkoutPanel.add(checkoutBtn);
+        checkoutPanel.add(saleStatus);
+        leftPanel.add(checkoutPanel);
+
+        // Sales History, read from today's ledger as rows scroll into view
+        salesHistoryList = new JList<>(salesHistoryModel);
+        salesHistoryList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        salesHistoryList.setPrototypeCellValue(new SaleRecord(0, "lane-000",
+            List.of(new SaleRecord.Line("", 999, 0, 0)), 99999999));
+        receiptArea = new JTextArea(6, 20);
+        receiptArea.setEditable(false);
+        JPanel historyPanel = new JPanel(new BorderLayout());
+        historyPanel.setBorder(BorderFactory.createTitledBorder("Sales History"));
+        historyPanel.add(new JScrollPane(salesHistoryList), BorderLayout.CENTER);
+        historyPanel.add(new JScrollPane(receiptArea), BorderLayout.SOUTH);
+        leftPanel.add(historyPanel);
+
+        // Create right panel for product list
+        JPanel rightPanel = new JPanel(new BorderLayout());
+        rightPanel.setBorder(BorderFactory.createTitledBorder("Available Products"));
+        // Its own rows, kept current by the catalog events rather than by whoever changed them
+        productListModel = new ProductListModel(products, inventory, categories);
+        productList = new ProductList(productListModel);
+        productSearch = new ProductSearch(searchField, productListModel, searchIndex, products);
+        new CatalogUpdates(events, productSearch::catalogChanged);
+        searchPanel.add(new CategoryFilter(searchIndex, productSearch));
+        JScrollPane productScroll = new JScrollPane(productList);
+        rightPanel.add(productScroll, BorderLayout.CENTER);
+
+        // Add both panels to a split pane
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, leftPanel, rightPanel);
+        splitPane.setResizeWeight(0.6); // Left panel gets 60% of the space
+        
+        // Add split pane to main panel
+        this.add(splitPane, BorderLayout.CENTER);
+
+        addActionListeners();
+        
+        // Initialize product list
+        searchProduct();
+    }
+
+    private void addActionListeners() {
+        searchBtn.addActionListener(e -> searchProduct());
+        addToCartBtn.addActionListener(e -> addToCart());
+        removeFromCartBtn.addActionListener(e -> removeFromCart());
+        clearCartBtn.addActionListener(e -> clearCart());
+        checkoutBtn.addActionListener(e -> checkout());
+        scanModeBox.addActionListener(e -> setScanMode(scanModeBox.isSelected()));
+        scanField.addActionListener(e -> scan());
+
+        salesHistoryList.addListSelectionListener(e -> {
+            SaleRecord sale = salesHistoryList.getSelectedValue();
+            receiptArea.setText(sale == null ? "" : sale.format());
+            receiptArea.setCaretPosition(0);
+        });
+    }
+
+    private void searchProduct() {
+        productSearch.runNow();
+    }
+
+    private void addToCart() {
+        Product selected = productList.getSelectedValue();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(parentFrame, "Please select a product first!");
+            return;
+        }
+
+        String productName = selected.name();
+        int quantity = (int) quantitySpinner.getValue();
+
+        // Hold the stock for this cart
+        int line = session.add(productName, quantity);
+        if (line < 0) {
+            JOptionPane.showMessageDialog(parentFrame, "Not enough stock available!");
+            return;
+        }
+        
+        // Update cart and total; repeat scans merge into their existing line
+        showLine(line);
+        updateTotal();
+    }
+
+    // Shows the line that was added to, or the whole cart if every line's promotion was re-checked
+    private void showLine(int line) {
+        if (session.getFullReprices() != shownReprices) {
+            shownReprices = session.getFullReprices();
+            cartListModel.clear();
+            for (int i = 0; i < session.getLineCount(); i++) {
+                cartListModel.addElement(session.getLine(i));
+            }
+        } else if (line < cartListModel.getSize()) {
+            cartListModel.set(line, session.getLine(line));
+        } else {
+            cartListModel.addElement(session.getLine(line));
+        }
+    }
+
+    private void setScanMode(boolean on) {
+        scanField.setEnabled(on);
+        scanStatus.setText(" ");
+        if (on) {
+            scanField.requestFocusInWindow();
+        }
+    }
+
+    // Adds the scanned product straight to the cart: one index probe, no search and no dialogs,
+    // so the next scan is never blocked. Problems show next to the field with a beep.
+    private void scan() {
+        long start = System.nanoTime();
+        String text = scanField.getText();
+        scanField.setText("");
+        long barcode = BarcodeIndex.parse(text);
+        String productName = barcodes.lookup(barcode);
+        if (productName == null) {
+            scanRejected("Unknown barcode " + text.trim());
+            return;
+        }
+        int line = session.add(productName, (int) quantitySpinner.getValue());
+        if (line < 0) {
+            scanRejected("Not enough stock: " + productName);
+            return;
+        }
+        showLine(line);
+        updateTotal();
+        scanStatus.setText(productName);
+        scanLatency.recordSince(start);
+    }
+
+    private void scanRejected(String message) {
+        scanStatus.setText(message);
+        Toolkit.getDefaultToolkit().beep();
+    }
+
+    private void removeFromCart() {
+        int selectedIndex = cartList.getSelectedIndex();
+        if (selectedIndex != -1) {
+            // Return items to inventory
+            session.remove(selectedIndex);
+            cartListModel.remove(selectedIndex);
+            updateTotal();
+        }
+    }
+
+    private void clearCart() {
+        // Return all items to inventory
+        session.clear();
+
+        cartListModel.clear();
+        updateTotal();
+    }
+
+    private void updateTotal() {
+        long savings = session.getSavingsCents();
+        totalLabel.setText("Total: $" + Money.format(session.getTotalCents())
+            + (savings == 0 ? "" : " (you save $" + Money.format(savings) + ")"));
+    }
+
+    private void checkout() {
+        // Sell the cart and generate receipt
+        Receipt sale;
+        try {
+            sale = session.checkout();
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(parentFrame, "Error saving sale!");
+            return;
+        }
+        if (sale == null) {
+            JOptionPane.showMessageDialog(parentFrame, "Cart is empty!");
+            return;
+        }
+        // The receipt prints in the background; the lane is ready for the next customer at once
+        boolean queued = receiptSpooler.submit(sale);
+
+        // Show the new sale and its receipt at the end of the history
+        salesHistoryModel.refresh();
+        int last = salesHistoryModel.getSize() - 1;
+        salesHistoryList.setSelectedIndex(last);
+        salesHistoryList.ensureIndexIsVisible(last);
+
+        // Clear cart
+        cartListModel.clear();
+        updateTotal();
+
+        saleStatus.setText("Sold $" + Money.format(sale.totalCents())
+            + (queued ? " - receipt printing" : " - printer busy, receipt is in Sales History"));
+        if (scanModeBox.isSelected()) {
+            scanStatus.setText(" ");
+            scanField.requestFocusInWindow();
+        }
+    }
+}
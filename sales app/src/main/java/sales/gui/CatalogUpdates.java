@@ -0,0 +1,86 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import sales.core.CatalogEvent;
+import sales.core.CatalogEvents;
+import sales.core.LatencyHistogram;
+import sales.core.Metrics;
+
+// Catalog events for one view, merged per product and handed over on the EDT once per frame. However
+// many lanes are selling, the view gets at most one update every FRAME_MILLIS, naming each product
+// once as added, removed or otherwise changed.
+public class CatalogUpdates implements CatalogEvents.Listener {
+    public interface View {
+        void catalogChanged(Set<String> inserted, Set<String> deleted, Set<String> updated);
+    }
+
+    private static final int FRAME_MILLIS = 16;
+
+    private final View view;
+    private final ConcurrentHashMap<String, CatalogEvent.Type> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer frame;
+    private final LongAdder updates = Metrics.counter("catalog.view.updates");
+    private final LatencyHistogram updateLatency = Metrics.histogram("catalog.view.update");
+
+    public CatalogUpdates(CatalogEvents events, View view) {
+        this.view = view;
+        this.frame = new Timer(FRAME_MILLIS, e -> flush());
+        this.frame.setRepeats(false);
+        events.addListener(this);
+    }
+
+    // Called on the publishing thread, often a lane's
+    @Override
+    public void catalogChanged(CatalogEvent event) {
+        pending.merge(event.name(), event.type(), CatalogUpdates::merge);
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(frame::start);
+        }
+    }
+
+    // An insert or delete outranks a value change, and the later of two inserts or deletes wins
+    private static CatalogEvent.Type merge(CatalogEvent.Type earlier, CatalogEvent.Type later) {
+        if (later == CatalogEvent.Type.INSERT || later == CatalogEvent.Type.DELETE) {
+            return later;
+        }
+        return earlier == CatalogEvent.Type.INSERT || earlier == CatalogEvent.Type.DELETE ? earlier : later;
+    }
+
+    private void flush() {
+        long start = System.nanoTime();
+        // Changes from here on schedule the next frame
+        scheduled.set(false);
+        Set<String> inserted = new HashSet<>();
+        Set<String> deleted = new HashSet<>();
+        Set<String> updated = new HashSet<>();
+        for (String name : pending.keySet()) {
+            CatalogEvent.Type type = pending.remove(name);
+            if (type == null) {
+                continue;
+            }
+            switch (type) {
+                case INSERT:
+                    inserted.add(name);
+                    break;
+                case DELETE:
+                    deleted.add(name);
+                    break;
+                default:
+                    updated.add(name);
+                    break;
+            }
+        }
+        if (inserted.isEmpty() && deleted.isEmpty() && updated.isEmpty()) {
+            return;
+        }
+        view.catalogChanged(inserted, deleted, updated);
+        updates.increment();
+        updateLatency.recordSince(start);
+    }
+}
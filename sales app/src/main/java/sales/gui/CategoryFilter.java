@@ -0,0 +1,72 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import java.util.Map;
+import sales.core.ProductSearchIndex;
+
+// Category picker for a product list, with each category's product count. The counts come
+// straight from the search index and are refreshed whenever the list is opened.
+public class CategoryFilter extends JComboBox<String> {
+    private static final String ALL = "All categories";
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductSearch productSearch;
+    private String selectedCategory;
+    private boolean updating;
+
+    public CategoryFilter(ProductSearchIndex searchIndex, ProductSearch productSearch) {
+        this.searchIndex = searchIndex;
+        this.productSearch = productSearch;
+        setPrototypeDisplayValue("Electronics and More (100000)");
+        reload();
+
+        addActionListener(e -> {
+            if (!updating && getSelectedIndex() >= 0) {
+                String item = (String) getSelectedItem();
+                selectedCategory = getSelectedIndex() == 0 ? null : item.substring(0, item.lastIndexOf(" ("));
+                productSearch.setCategory(selectedCategory);
+            }
+        });
+        addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                reload();
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
+    }
+
+    public String getSelectedCategory() {
+        return selectedCategory;
+    }
+
+    private void reload() {
+        updating = true;
+        Map<String, Integer> counts = searchIndex.categoryCounts();
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        model.addElement(ALL + " (" + searchIndex.size() + ")");
+        for (Map.Entry<String, Integer> category : counts.entrySet()) {
+            String item = category.getKey() + " (" + category.getValue() + ")";
+            model.addElement(item);
+            if (category.getKey().equals(selectedCategory)) {
+                model.setSelectedItem(item);
+            }
+        }
+        // Keep showing a filter whose last product just left it
+        if (selectedCategory != null && !counts.containsKey(selectedCategory)) {
+            model.addElement(selectedCategory + " (0)");
+            model.setSelectedItem(selectedCategory + " (0)");
+        }
+        setModel(model);
+        updating = false;
+    }
+}
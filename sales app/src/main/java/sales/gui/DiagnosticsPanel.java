@@ -0,0 +1,58 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import sales.core.Metrics;
+
+// Live view of the metrics registry. Admin opens it with Ctrl+Shift+D; it is not on any menu.
+public class DiagnosticsPanel extends JPanel {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final JTextArea metricsArea;
+    private final Timer refreshTimer;
+
+    public DiagnosticsPanel() {
+        this.setLayout(new BorderLayout());
+        metricsArea = new JTextArea(24, 100);
+        metricsArea.setEditable(false);
+        metricsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        this.add(new JScrollPane(metricsArea), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton copyJsonBtn = new JButton("Copy JSON");
+        copyJsonBtn.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+            .setContents(new StringSelection(Metrics.formatJson()), null));
+        buttonPanel.add(copyJsonBtn);
+        this.add(buttonPanel, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    }
+
+    private void refresh() {
+        metricsArea.setText(Metrics.formatText());
+    }
+
+    // Only refresh while the panel is on screen
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    public static void show(JFrame owner) {
+        JDialog dialog = new JDialog(owner, "Diagnostics", false);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.add(new DiagnosticsPanel());
+        dialog.pack();
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+}
@@ -0,0 +1,104 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import sales.core.CatalogTransfer;
+import sales.core.ReorderQueue;
+
+// Products at or below their reorder level, most short first. The queue is kept up to date by
+// every sale and edit; this only polls its version, so a burst of sales costs one refresh.
+public class LowStockPanel extends JPanel {
+    private static final int REFRESH_MILLIS = 500;
+    private static final int SHOWN_ROWS = 500;
+
+    private final ReorderQueue reorderQueue;
+    private final JFrame parentFrame;
+    private final DefaultListModel<String> lowStockModel = new DefaultListModel<>();
+    private final JLabel summaryLabel = new JLabel();
+    private final Timer refreshTimer;
+    private long shownVersion = -1;
+
+    public LowStockPanel(ReorderQueue reorderQueue, JFrame parentFrame) {
+        this.reorderQueue = reorderQueue;
+        this.parentFrame = parentFrame;
+        this.setLayout(new BorderLayout());
+        this.setBorder(BorderFactory.createTitledBorder("Low Stock"));
+
+        JList<String> lowStockList = new JList<>(lowStockModel);
+        lowStockList.setVisibleRowCount(5);
+        this.add(new JScrollPane(lowStockList), BorderLayout.CENTER);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        JButton exportBtn = new JButton("Export Reorder List...");
+        exportBtn.addActionListener(e -> exportReorderList());
+        bottomPanel.add(summaryLabel, BorderLayout.CENTER);
+        bottomPanel.add(exportBtn, BorderLayout.EAST);
+        this.add(bottomPanel, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    }
+
+    private void refresh() {
+        long version = reorderQueue.getVersion();
+        if (version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        List<ReorderQueue.Entry> lowest = reorderQueue.lowest(SHOWN_ROWS);
+        lowStockModel.clear();
+        for (ReorderQueue.Entry entry : lowest) {
+            lowStockModel.addElement(String.format("%s - %d left (reorder at %d)",
+                entry.name(), entry.available(), entry.reorderLevel()));
+        }
+        int total = reorderQueue.size();
+        summaryLabel.setText(total == 0 ? "Nothing to reorder"
+            : total + " product(s) to reorder" + (total > SHOWN_ROWS ? ", showing the first " + SHOWN_ROWS : ""));
+    }
+
+    // Only refresh while the panel is on screen
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private void exportReorderList() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Catalog files (CSV, TSV)", "csv", "tsv"));
+        if (chooser.showSaveDialog(parentFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File chosen = chooser.getSelectedFile();
+        String lowerName = chosen.getName().toLowerCase();
+        File file = lowerName.endsWith(".csv") || lowerName.endsWith(".tsv") ? chosen : new File(chosen.getPath() + ".csv");
+        List<ReorderQueue.Entry> entries = reorderQueue.lowest(Integer.MAX_VALUE);
+
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return CatalogTransfer.writeReorderList(file, entries);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    summaryLabel.setText("Exported " + get() + " product(s) to " + file.getName());
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parentFrame, "Error exporting reorder list!");
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,119 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import sales.core.ReplicationService;
+import sales.core.StockCounters;
+
+// Stock of every replicated product at each store and over the whole network, as merged from the
+// shared folder. Admin opens it with Network Stock... when replication is on. Cells are read from
+// the counters as they are painted; the panel polls their version, so quiet periods cost nothing.
+public class NetworkStockPanel extends JPanel {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final StockCounters counters;
+    private final StockModel stockModel = new StockModel();
+    private final JLabel summaryLabel = new JLabel();
+    private final Timer refreshTimer;
+    private long shownVersion = -1;
+
+    public NetworkStockPanel(ReplicationService replication) {
+        this.counters = replication.getCounters();
+        this.setLayout(new BorderLayout());
+        JTable table = new JTable(stockModel);
+        this.add(new JScrollPane(table), BorderLayout.CENTER);
+        this.add(summaryLabel, BorderLayout.SOUTH);
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    }
+
+    private void refresh() {
+        long version = counters.getVersion();
+        if (version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        stockModel.reload();
+        summaryLabel.setText(stockModel.getRowCount() + " product(s) across " + stockModel.nodes.size()
+            + " store(s); this store is " + counters.getLocalNode());
+    }
+
+    // Only refresh while the panel is on screen
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    public static void show(JFrame owner, ReplicationService replication) {
+        JDialog dialog = new JDialog(owner, "Network Stock", false);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.add(new NetworkStockPanel(replication));
+        dialog.setSize(700, 500);
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    // Product, one column per store, then the network total
+    private class StockModel extends AbstractTableModel {
+        private List<String> names = new ArrayList<>();
+        private List<String> nodes = new ArrayList<>();
+
+        void reload() {
+            List<String> newNodes = counters.getNodes();
+            // The product list only changes when a product is first replicated
+            if (counters.size() != names.size()) {
+                names = new ArrayList<>(counters.names());
+                Collections.sort(names);
+            }
+            if (!newNodes.equals(nodes)) {
+                nodes = newNodes;
+                fireTableStructureChanged();
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return names.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return nodes.size() + 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column == 0) {
+                return "Product";
+            }
+            return column <= nodes.size() ? nodes.get(column - 1) : "Network";
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? String.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            String name = names.get(row);
+            if (column == 0) {
+                return name;
+            }
+            return column <= nodes.size() ? counters.getStock(name, nodes.get(column - 1)) : counters.getStock(name);
+        }
+    }
+}
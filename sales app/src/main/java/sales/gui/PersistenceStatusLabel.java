@@ -0,0 +1,32 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import sales.core.PersistenceService;
+
+public class PersistenceStatusLabel extends JLabel implements PersistenceService.Listener {
+    private static final Color SAVED_COLOR = new Color(0, 128, 0);
+
+    public PersistenceStatusLabel(PersistenceService persistence) {
+        showStatus(persistence.getPending(), null);
+        persistence.addListener(this);
+    }
+
+    @Override
+    public void persistenceChanged(int pending, String error) {
+        SwingUtilities.invokeLater(() -> showStatus(pending, error));
+    }
+
+    private void showStatus(int pending, String error) {
+        if (error != null) {
+            setForeground(Color.RED);
+            setText("Save failed: " + error);
+        } else if (pending > 0) {
+            setForeground(Color.DARK_GRAY);
+            setText("Saving " + pending + " change(s)...");
+        } else {
+            setForeground(SAVED_COLOR);
+            setText("All changes saved");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import sales.core.Product;
+
+// A product JList that stays cheap on huge catalogs: the prototype row fixes every cell's size,
+// so Swing never measures rows, and only the rows in view are formatted.
+public class ProductList extends JList<Product> {
+    private static final Product PROTOTYPE = new Product("Prototype product with a long name", "Electronics", 99999.99, 99999);
+
+    public ProductList(ProductListModel model) {
+        super(model);
+        setPrototypeCellValue(PROTOTYPE);
+        setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                Object text = index >= 0 && index < model.getSize() ? model.getText(index) : value;
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+    }
+}
@@ -0,0 +1,255 @@
+package sales.gui;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import sales.core.InventoryEngine;
+import sales.core.Product;
+
+// The product rows of one Admin or Cashier list. Only names are held per row; price, stock and
+// category are read from the catalog when a row is asked for, and the formatted text of recently
+// painted rows is cached until that product changes.
+public class ProductListModel extends AbstractListModel<Product> {
+    private static final int CACHE_SIZE = 1024;
+
+    private final Map<String, Double> products;
+    private final InventoryEngine inventory;
+    private final Map<String, String> categories;
+    private ArrayList<String> rows = new ArrayList<>();
+    // Open-addressed name -> row + 1 index, 0 when free; kept at most half full
+    private int[] positions = new int[16];
+    private final Map<String, String> textCache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public ProductListModel(Map<String, Double> products, InventoryEngine inventory, Map<String, String> categories) {
+        this.products = products;
+        this.inventory = inventory;
+        this.categories = categories;
+    }
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public Product getElementAt(int index) {
+        String name = rows.get(index);
+        return new Product(name, categories.getOrDefault(name, "Other"),
+            products.getOrDefault(name, 0.0), inventory.getAvailable(name));
+    }
+
+    // The row as the product lists display it
+    public String getText(int index) {
+        String name = rows.get(index);
+        String text = textCache.get(name);
+        if (text == null) {
+            text = getElementAt(index).toString();
+            textCache.put(name, text);
+        }
+        return text;
+    }
+
+    public int indexOf(String name) {
+        return positions[slotOf(name)] - 1;
+    }
+
+    // A complete set of rows with its position index, built off the EDT so that publishing even a
+    // whole catalog is a swap
+    public static final class Rows {
+        private final ArrayList<String> names;
+        private final int[] positions;
+
+        private Rows(ArrayList<String> names, int[] positions) {
+            this.names = names;
+            this.positions = positions;
+        }
+    }
+
+    public static Rows prepare(Collection<String> names) {
+        ArrayList<String> rows = new ArrayList<>(names);
+        return new Rows(rows, index(rows));
+    }
+
+    public void setNames(Collection<String> names) {
+        setRows(prepare(names));
+    }
+
+    // Replaces every row, e.g. for a new search, with one event per affected range
+    public void setRows(Rows newRows) {
+        int oldSize = rows.size();
+        rows = newRows.names;
+        positions = newRows.positions;
+        textCache.clear();
+
+        int newSize = rows.size();
+        if (oldSize > newSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    // Appends a new product or refreshes its existing row
+    public void add(String name) {
+        int slot = slotOf(name);
+        if (positions[slot] != 0) {
+            changed(name);
+            return;
+        }
+        rows.add(name);
+        if (rows.size() * 2 > positions.length) {
+            reindex();
+        } else {
+            positions[slot] = rows.size();
+        }
+        fireIntervalAdded(this, rows.size() - 1, rows.size() - 1);
+    }
+
+    // Shows newName in oldName's row, so a rename keeps its position
+    public void rename(String oldName, String newName) {
+        if (indexOf(oldName) < 0) {
+            add(newName);
+            return;
+        }
+        if (!oldName.equals(newName)) {
+            remove(newName);
+            rows.set(indexOf(oldName), newName);
+            textCache.remove(oldName);
+            reindex();
+        }
+        changed(newName);
+    }
+
+    // Call after a product's price, stock or category changed
+    public void changed(String name) {
+        textCache.remove(name);
+        int index = indexOf(name);
+        if (index >= 0) {
+            fireContentsChanged(this, index, index);
+        }
+    }
+
+    // As changed(name) for many products at once, with a single event spanning their rows
+    public void changed(Collection<String> names) {
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (String name : names) {
+            textCache.remove(name);
+            int index = indexOf(name);
+            if (index >= 0) {
+                first = Math.min(first, index);
+                last = Math.max(last, index);
+            }
+        }
+        if (last >= 0) {
+            fireContentsChanged(this, first, last);
+        }
+    }
+
+    // A frame's worth of catalog changes from CatalogUpdates: removed rows go in one pass, new
+    // products are appended together, and everything else is one event spanning the changed rows
+    public void apply(Set<String> inserted, Set<String> deleted, Set<String> updated) {
+        if (!deleted.isEmpty()) {
+            removeAll(deleted);
+        }
+        List<String> changed = new ArrayList<>(updated);
+        int oldSize = rows.size();
+        for (String name : inserted) {
+            int slot = slotOf(name);
+            if (positions[slot] != 0) {
+                changed.add(name);
+                continue;
+            }
+            rows.add(name);
+            if (rows.size() * 2 > positions.length) {
+                reindex();
+            } else {
+                positions[slot] = rows.size();
+            }
+        }
+        if (rows.size() > oldSize) {
+            fireIntervalAdded(this, oldSize, rows.size() - 1);
+        }
+        if (!changed.isEmpty()) {
+            changed(changed);
+        }
+    }
+
+    private void removeAll(Set<String> names) {
+        List<Integer> indexes = new ArrayList<>();
+        for (String name : names) {
+            textCache.remove(name);
+            int index = indexOf(name);
+            if (index >= 0) {
+                indexes.add(index);
+            }
+        }
+        if (indexes.isEmpty()) {
+            return;
+        }
+        rows.removeIf(names::contains);
+        reindex();
+        // One event per run of adjacent rows, highest first so each one's indexes are still right
+        indexes.sort(Collections.reverseOrder());
+        int i = 0;
+        while (i < indexes.size()) {
+            int last = indexes.get(i);
+            int first = last;
+            while (++i < indexes.size() && indexes.get(i) == first - 1) {
+                first--;
+            }
+            fireIntervalRemoved(this, first, last);
+        }
+    }
+
+    public void remove(String name) {
+        textCache.remove(name);
+        int index = indexOf(name);
+        if (index < 0) {
+            return;
+        }
+        rows.remove(index);
+        reindex();
+        fireIntervalRemoved(this, index, index);
+    }
+
+    private int slotOf(String name) {
+        return slotOf(rows, positions, name);
+    }
+
+    private void reindex() {
+        positions = index(rows);
+    }
+
+    // Slot holding the name, or the free slot where it would go
+    private static int slotOf(ArrayList<String> rows, int[] positions, String name) {
+        int mask = positions.length - 1;
+        int hash = name.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (positions[slot] != 0 && !rows.get(positions[slot] - 1).equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int[] index(ArrayList<String> rows) {
+        int[] positions = new int[Integer.highestOneBit(Math.max(16, rows.size() * 4 - 1))];
+        for (int i = 0; i < rows.size(); i++) {
+            positions[slotOf(rows, positions, rows.get(i))] = i + 1;
+        }
+        return positions;
+    }
+}
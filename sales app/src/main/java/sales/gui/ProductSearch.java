@@ -0,0 +1,135 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import sales.core.ProductSearchIndex;
+
+// Drives a product list from a search field without searching on the EDT. Edits restart a short
+// debounce timer, the search runs on a background thread, and a search overtaken by a newer one
+// stops early and never reaches the list.
+public class ProductSearch {
+    private static final int DEBOUNCE_MILLIS = 150;
+    private static final ExecutorService SEARCHER = newSearcher();
+
+    private final JTextField field;
+    private final ProductListModel model;
+    private final ProductSearchIndex searchIndex;
+    private final Map<String, Double> products;
+    private final Timer debounce;
+    private final AtomicInteger generation = new AtomicInteger();
+    // Category the results are limited to, or null for all
+    private String category;
+
+    public ProductSearch(JTextField field, ProductListModel model, ProductSearchIndex searchIndex,
+                         Map<String, Double> products) {
+        this.field = field;
+        this.model = model;
+        this.searchIndex = searchIndex;
+        this.products = products;
+        this.debounce = new Timer(DEBOUNCE_MILLIS, e -> runNow());
+        this.debounce.setRepeats(false);
+
+        // Document events fire only for real edits, not arrows, modifiers or selection changes
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                schedule();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                schedule();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    private void schedule() {
+        // Cancels a search already running for an older text
+        generation.incrementAndGet();
+        debounce.restart();
+    }
+
+    // Limits results to one category (null for all) and searches again
+    public void setCategory(String category) {
+        this.category = category;
+        runNow();
+    }
+
+    // Searches for the field's current text straight away, e.g. for the Search button or after an edit
+    public void runNow() {
+        debounce.stop();
+        int current = generation.incrementAndGet();
+        String query = field.getText();
+        String filter = category;
+        BooleanSupplier superseded = () -> generation.get() != current;
+
+        SEARCHER.execute(() -> {
+            List<String> names;
+            if (filter != null) {
+                names = searchIndex.search(query, filter, superseded);
+            } else {
+                names = query.isEmpty() ? new ArrayList<>(products.keySet()) : searchIndex.search(query, superseded);
+            }
+            if (names == null || superseded.getAsBoolean()) {
+                return;
+            }
+            ProductListModel.Rows rows = ProductListModel.prepare(names);
+            SwingUtilities.invokeLater(() -> {
+                if (!superseded.getAsBoolean()) {
+                    model.setRows(rows);
+                }
+            });
+        });
+    }
+
+    // Catalog changes from CatalogUpdates, applied as far as they concern the list as searched: a
+    // new or changed product is listed if it matches the text and category, as the index would
+    // match it, and dropped if it no longer does, e.g. after moving to another category
+    public void catalogChanged(Set<String> inserted, Set<String> deleted, Set<String> updated) {
+        String query = field.getText().toLowerCase();
+        Set<String> listed = new HashSet<>();
+        Set<String> unlisted = new HashSet<>(deleted);
+        for (String name : inserted) {
+            (matches(name, query) ? listed : unlisted).add(name);
+        }
+        for (String name : updated) {
+            (matches(name, query) ? listed : unlisted).add(name);
+        }
+        // Listed products already shown are only repainted
+        model.apply(listed, unlisted, Set.of());
+    }
+
+    private boolean matches(String name, String query) {
+        if (category != null && !category.equals(searchIndex.getCategory(name))) {
+            return false;
+        }
+        return query.isEmpty() || name.toLowerCase().contains(query);
+    }
+
+    // One daemon thread shared by every search field; it goes away while nobody is searching
+    private static ExecutorService newSearcher() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "product-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,145 @@
+package sales.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import sales.core.Money;
+import sales.core.PricingEngine;
+import sales.core.Promotion;
+import sales.core.PromotionStore;
+
+// Admin's list of promotions. Edits go to the PricingEngine at once, so the next item scanned on any
+// lane is priced with them, and promotions.tsv is rewritten in the background.
+public class PromotionsPanel extends JPanel {
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm";
+
+    private final PricingEngine pricing;
+    private final PromotionStore promotionStore;
+    private final JFrame parentFrame;
+    private final DefaultListModel<Promotion> promotionModel = new DefaultListModel<>();
+    private final JList<Promotion> promotionList = new JList<>(promotionModel);
+
+    public PromotionsPanel(PricingEngine pricing, PromotionStore promotionStore, JFrame parentFrame) {
+        this.pricing = pricing;
+        this.promotionStore = promotionStore;
+        this.parentFrame = parentFrame;
+        this.setLayout(new BorderLayout());
+        this.setBorder(BorderFactory.createTitledBorder("Promotions"));
+
+        promotionList.setVisibleRowCount(4);
+        this.add(new JScrollPane(promotionList), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton addBtn = new JButton("Add Promotion...");
+        JButton removeBtn = new JButton("Remove Selected");
+        addBtn.addActionListener(e -> addPromotion());
+        removeBtn.addActionListener(e -> removeSelected());
+        buttonPanel.add(addBtn);
+        buttonPanel.add(removeBtn);
+        this.add(buttonPanel, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    private void refresh() {
+        promotionModel.clear();
+        for (Promotion promotion : pricing.getPromotions()) {
+            promotionModel.addElement(promotion);
+        }
+    }
+
+    private void addPromotion() {
+        JComboBox<String> typeBox = new JComboBox<>(new String[] {"Percent off", "Amount off each", "Multi-buy (N for $X)"});
+        JComboBox<String> appliesToBox = new JComboBox<>(new String[] {"Product", "Category"});
+        JTextField targetField = new JTextField(15);
+        JTextField quantityField = new JTextField("1", 5);
+        JTextField valueField = new JTextField(8);
+        JTextField fromField = new JTextField(12);
+        JTextField untilField = new JTextField(12);
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 5, 5));
+        form.add(new JLabel("Type:"));
+        form.add(typeBox);
+        form.add(new JLabel("Applies to:"));
+        form.add(appliesToBox);
+        form.add(new JLabel("Product / Category:"));
+        form.add(targetField);
+        form.add(new JLabel("Min. quantity / N:"));
+        form.add(quantityField);
+        form.add(new JLabel("Percent / $ off / $ for N:"));
+        form.add(valueField);
+        form.add(new JLabel("From (" + DATE_FORMAT + "):"));
+        form.add(fromField);
+        form.add(new JLabel("Until (" + DATE_FORMAT + "):"));
+        form.add(untilField);
+
+        if (JOptionPane.showConfirmDialog(parentFrame, form, "Add Promotion",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        try {
+            Promotion.Type type = Promotion.Type.values()[typeBox.getSelectedIndex()];
+            double amount = Double.parseDouble(valueField.getText().trim());
+            long value = type == Promotion.Type.PERCENT_OFF ? Math.round(amount) : Money.toCents(amount);
+            Promotion added = pricing.add(type, appliesToBox.getSelectedIndex() == 1, targetField.getText().trim(),
+                Integer.parseInt(quantityField.getText().trim()), value,
+                parseTime(fromField.getText()), parseTime(untilField.getText()));
+            refresh();
+            promotionList.setSelectedValue(added, true);
+            save();
+        } catch (NumberFormatException | ParseException e) {
+            JOptionPane.showMessageDialog(parentFrame, "Please enter valid numbers and dates (" + DATE_FORMAT + ")!");
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(parentFrame, e.getMessage());
+        }
+    }
+
+    // Blank means open ended
+    private static long parseTime(String text) throws ParseException {
+        if (text.isBlank()) {
+            return 0;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        format.setLenient(false);
+        return format.parse(text.trim()).getTime();
+    }
+
+    private void removeSelected() {
+        Promotion selected = promotionList.getSelectedValue();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(parentFrame, "Please select a promotion to remove!");
+            return;
+        }
+        int confirm = JOptionPane.showConfirmDialog(parentFrame,
+            "Remove promotion " + selected + "?", "Confirm Remove", JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_OPTION && pricing.remove(selected.id())) {
+            refresh();
+            save();
+        }
+    }
+
+    private void save() {
+        List<Promotion> promotions = pricing.getPromotions();
+        long version = pricing.getVersion();
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                promotionStore.save(promotions, version);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parentFrame, "Error saving promotions!");
+                }
+            }
+        }.execute();
+    }
+}
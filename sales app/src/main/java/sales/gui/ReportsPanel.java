@@ -0,0 +1,125 @@
+package sales.gui;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import java.awt.*;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import sales.core.Money;
+import sales.core.SalesAnalytics;
+
+public class ReportsPanel extends JPanel {
+    private final File salesDirectory;
+    private final Map<String, String> categories;
+    private JSpinner topSpinner;
+    private JButton refreshBtn;
+    private JLabel statusLabel;
+    private JTextArea reportArea;
+
+    public ReportsPanel(File salesDirectory, Map<String, String> categories) {
+        this.salesDirectory = salesDirectory;
+        this.categories = categories;
+        initializePanel();
+    }
+
+    private void initializePanel() {
+        this.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(), "Sales Reports",
+            TitledBorder.CENTER, TitledBorder.TOP));
+        this.setLayout(new BorderLayout());
+
+        JPanel controlPanel = new JPanel();
+        topSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 1000, 1));
+        refreshBtn = new JButton("Refresh");
+        statusLabel = new JLabel();
+        controlPanel.add(new JLabel("Top products:"));
+        controlPanel.add(topSpinner);
+        controlPanel.add(refreshBtn);
+        controlPanel.add(statusLabel);
+        this.add(controlPanel, BorderLayout.NORTH);
+
+        reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        this.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+
+        refreshBtn.addActionListener(e -> refresh());
+    }
+
+    // Loads the ledger and aggregates it off the EDT
+    public void refresh() {
+        int topN = (int) topSpinner.getValue();
+        Map<String, String> categorySnapshot = new HashMap<>(categories);
+        refreshBtn.setEnabled(false);
+        statusLabel.setText("Loading...");
+
+        new SwingWorker<String, Void>() {
+            private long elapsedMillis;
+
+            @Override
+            protected String doInBackground() throws Exception {
+                long start = System.nanoTime();
+                SalesAnalytics analytics = SalesAnalytics.load(salesDirectory);
+                String text = format(analytics.report(topN, categorySnapshot));
+                elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                return text;
+            }
+
+            @Override
+            protected void done() {
+                refreshBtn.setEnabled(true);
+                try {
+                    reportArea.setText(get());
+                    reportArea.setCaretPosition(0);
+                    statusLabel.setText("Built in " + elapsedMillis + " ms");
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    statusLabel.setText("");
+                    JOptionPane.showMessageDialog(ReportsPanel.this, "Error reading sales ledger!");
+                }
+            }
+        }.execute();
+    }
+
+    private static String format(SalesAnalytics.Report report) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Sales: %d   Items: %d   Revenue: $%s%n%n",
+            report.sales(), report.items(), Money.format(report.revenueCents())));
+
+        text.append("=== TOP PRODUCTS ===\n");
+        int rank = 1;
+        for (SalesAnalytics.ProductTotal product : report.topProducts()) {
+            text.append(String.format("%3d. %-30s %-12s %8d  $%12s%n", rank++, product.name(),
+                product.category(), product.quantity(), Money.format(product.revenueCents())));
+        }
+
+        text.append("\n=== REVENUE BY CATEGORY ===\n");
+        for (Map.Entry<String, Long> category : report.revenueByCategory().entrySet()) {
+            text.append(String.format("%-20s $%12s%n", category.getKey(), Money.format(category.getValue())));
+        }
+
+        text.append("\n=== REVENUE BY HOUR ===\n");
+        for (int hour = 0; hour < report.revenueByHour().length; hour++) {
+            if (report.revenueByHour()[hour] != 0) {
+                text.append(String.format("%02d:00  $%12s%n", hour, Money.format(report.revenueByHour()[hour])));
+            }
+        }
+
+        text.append("\n=== REVENUE BY DAY ===\n");
+        for (int day = 0; day < report.days().size(); day++) {
+            text.append(String.format("%s  $%12s%n", report.days().get(day), Money.format(report.revenueByDay()[day])));
+        }
+
+        text.append("\n=== BASKET SIZES (items per sale) ===\n");
+        long[] baskets = report.basketSizes();
+        for (int size = 1; size < baskets.length; size++) {
+            if (baskets[size] != 0) {
+                String label = size == SalesAnalytics.MAX_BASKET ? size + "+" : String.valueOf(size);
+                text.append(String.format("%4s  %d%n", label, baskets[size]));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package sales.gui;
+
+import javax.swing.AbstractListModel;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import sales.core.SaleRecord;
+import sales.core.SalesLedger;
+
+// Today's sales straight from the ledger. Rows are decoded only when Swing asks for them,
+// and only the most recently shown ones are kept around.
+public class SalesHistoryModel extends AbstractListModel<SaleRecord> {
+    private static final int CACHE_SIZE = 256;
+
+    private final SalesLedger ledger;
+    private final Map<Integer, SaleRecord> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SaleRecord> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private LocalDate day;
+    private int size;
+
+    public SalesHistoryModel(SalesLedger ledger) {
+        this.ledger = ledger;
+        this.day = ledger.getDay();
+        this.size = ledger.size();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public SaleRecord getElementAt(int index) {
+        return cache.computeIfAbsent(index, ledger::read);
+    }
+
+    // Picks up sales appended since the last call, announcing only the new rows
+    public void refresh() {
+        LocalDate ledgerDay = ledger.getDay();
+        int ledgerSize = ledger.size();
+        if (!ledgerDay.equals(day)) {
+            // The ledger rolled over to a new day's segment
+            int oldSize = size;
+            day = ledgerDay;
+            size = 0;
+            cache.clear();
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+        }
+        if (ledgerSize > size) {
+            int first = size;
+            size = ledgerSize;
+            fireIntervalAdded(this, first, ledgerSize - 1);
+        }
+    }
+}